@@ -1,5 +1,5 @@
 import React, { useEffect, useState } from 'react';
-import { api } from '../../services/api';
+import { api, fetchSweetsPage } from '../../services/api';
 import { Link } from 'react-router-dom';
 import { Button } from '../ui/Button';
 import { Input } from '../ui/Input';
@@ -17,16 +17,32 @@ interface Sweet {
 export const AdminPage: React.FC = () => {
   const { notify } = useToast();
   const [sweets, setSweets] = useState<Sweet[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [form, setForm] = useState({ name: '', category: '', price: '0', quantity: '0' });
   const [restockQty, setRestockQty] = useState('5');
   const [edit, setEdit] = useState<Sweet | null>(null);
   const [error, setError] = useState<string | null>(null);
 
   const load = async () => {
-    const res = await api.get('/api/sweets');
-    setSweets(res.data);
+    const page = await fetchSweetsPage<Sweet>();
+    setSweets(page.items);
+    setNextCursor(page.nextCursor);
   };
 
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    try {
+      const page = await fetchSweetsPage<Sweet>(undefined, nextCursor);
+      setSweets(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (e: any) {
+      notify(e?.response?.data?.message || 'Failed to load more', 'error');
+    }
+  };
+
+  // Patch the loaded rows in place, so an edit does not drop the pages already loaded
+  const replace = (updated: Sweet) => setSweets(prev => prev.map(s => s.id === updated.id ? updated : s));
+
   useEffect(() => { load(); }, []);
 
   const create = async (e: React.FormEvent) => {
@@ -51,9 +67,9 @@ export const AdminPage: React.FC = () => {
 
   const restock = async (id: number) => {
     try {
-      await api.post(`/api/sweets/${id}/restock`, null, { params: { quantity: Math.max(1, parseInt(restockQty || '1', 10)) } });
+      const res = await api.post<Sweet>(`/api/sweets/${id}/restock`, null, { params: { quantity: Math.max(1, parseInt(restockQty || '1', 10)) } });
       notify('Stock updated', 'success');
-      load();
+      replace(res.data);
     } catch (e: any) {
       notify(e?.response?.data?.message || 'Restock failed', 'error');
     }
@@ -64,7 +80,7 @@ export const AdminPage: React.FC = () => {
     try {
       await api.delete(`/api/sweets/${id}`);
       notify('Deleted', 'success');
-      load();
+      setSweets(prev => prev.filter(s => s.id !== id));
     } catch (e: any) {
       notify(e?.response?.data?.message || 'Delete failed', 'error');
     }
@@ -80,7 +96,7 @@ export const AdminPage: React.FC = () => {
     if (!edit) return;
     setError(null);
     try {
-      await api.put(`/api/sweets/${edit.id}`, {
+      const res = await api.put<Sweet>(`/api/sweets/${edit.id}`, {
         name: form.name,
         category: form.category,
         price: parseFloat(form.price),
@@ -88,7 +104,7 @@ export const AdminPage: React.FC = () => {
       });
       setEdit(null);
       setForm({ name: '', category: '', price: '0', quantity: '0' });
-      load();
+      replace(res.data);
       notify('Sweet updated', 'success');
     } catch (e: any) {
       const msg = e?.response?.data?.message || 'Update failed';
@@ -148,6 +164,11 @@ export const AdminPage: React.FC = () => {
             ))}
           </tbody>
         </table>
+        {nextCursor && (
+          <div className="row" style={{ justifyContent: 'center', marginTop: '0.75rem' }}>
+            <Button type="button" variant="secondary" onClick={loadMore}>Load more</Button>
+          </div>
+        )}
       </Card>
     </div>
   );
@@ -1,6 +1,6 @@
-import React, { useEffect, useMemo, useState } from 'react';
+import React, { useEffect, useMemo, useRef, useState } from 'react';
 import { useAuth } from '../../state/AuthContext';
-import { api } from '../../services/api';
+import { api, fetchSweetsPage, subscribeSweetChanges } from '../../services/api';
 import { Link } from 'react-router-dom';
 import { Button } from '../ui/Button';
 import { Input } from '../ui/Input';
@@ -20,7 +20,11 @@ export const SweetsPage: React.FC = () => {
   const { user } = useAuth();
   const { notify } = useToast();
   const [sweets, setSweets] = useState<Sweet[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  // Filters the shown pages were loaded with, so "load more" continues the same list
+  const [loadedParams, setLoadedParams] = useState<Record<string, string>>({});
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState<string | null>(null);
   const [search, setSearch] = useState('');
   const [category, setCategory] = useState('');
@@ -35,8 +39,11 @@ export const SweetsPage: React.FC = () => {
       if (category) params.category = category;
       if (minPrice) params.minPrice = minPrice;
       if (maxPrice) params.maxPrice = maxPrice;
-      const res = await api.get('/api/sweets', { params: Object.keys(params).length ? params : undefined });
-      setSweets(res.data);
+      const page = await fetchSweetsPage<Sweet>(params);
+      setSweets(page.items);
+      setNextCursor(page.nextCursor);
+      setLoadedParams(params);
+      setError(null);
     } catch (e: any) {
       setError(e?.response?.data?.message || 'Failed to load');
     } finally {
@@ -44,8 +51,34 @@ export const SweetsPage: React.FC = () => {
     }
   };
 
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const page = await fetchSweetsPage<Sweet>(loadedParams, nextCursor);
+      setSweets(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (e: any) {
+      notify(e?.response?.data?.message || 'Failed to load more', 'error');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   useEffect(() => { load(); }, []);
 
+  // Latest load (with the current filters) for the stream's resync callback
+  const loadRef = useRef(load);
+  loadRef.current = load;
+
+  // Keep stock and prices fresh from the change stream instead of re-polling the whole list
+  useEffect(() => subscribeSweetChanges(change => {
+    if (change.type === 'CREATED') return;
+    setSweets(prev => change.type === 'DELETED'
+      ? prev.filter(s => s.id !== change.id)
+      : prev.map(s => s.id === change.id ? { ...s, quantity: change.quantity ?? s.quantity, price: change.price ?? s.price } : s));
+  }, () => { loadRef.current(); }), []);
+
   const skeletons = useMemo(() => Array.from({ length: 6 }), []);
 
   return (
@@ -98,9 +131,9 @@ export const SweetsPage: React.FC = () => {
                 {user ? (
                   <Button disabled={s.quantity < 1} onClick={async () => {
                     try {
-                      await api.post(`/api/sweets/${s.id}/purchase`, null, { params: { quantity: 1 } });
+                      const res = await api.post<Sweet>(`/api/sweets/${s.id}/purchase`, null, { params: { quantity: 1 } });
                       notify(`Purchased 1 ${s.name}`, 'success');
-                      load();
+                      setSweets(prev => prev.map(x => x.id === res.data.id ? res.data : x));
                     } catch (e: any) {
                       notify(e?.response?.data?.message || 'Purchase failed', 'error');
                     }
@@ -113,6 +146,12 @@ export const SweetsPage: React.FC = () => {
           ))}
         </div>
       )}
+
+      {!loading && !error && nextCursor && (
+        <div className="row" style={{ justifyContent: 'center', marginTop: '1rem' }}>
+          <Button variant="secondary" disabled={loadingMore} onClick={loadMore}>{loadingMore ? 'Loading…' : 'Load more'}</Button>
+        </div>
+      )}
     </div>
   );
 };
@@ -16,3 +16,21 @@ api.interceptors.request.use(config => {
   }
   return config;
 });
+
+export interface SweetsPage<T> { items: T[]; nextCursor: string | null; }
+
+// The catalog is keyset paged: one page per call; pass the returned nextCursor back to get the next one ("load more").
+export const fetchSweetsPage = async <T>(params?: Record<string, string>, cursor?: string | null): Promise<SweetsPage<T>> => {
+  const res = await api.get<T[]>('/api/sweets', { params: { ...(params || {}), ...(cursor ? { cursor } : {}) } });
+  return { items: res.data, nextCursor: res.headers['x-next-cursor'] || null };
+};
+
+export interface SweetChange { type: 'CREATED' | 'UPDATED' | 'STOCK_CHANGED' | 'DELETED'; id: number; quantity: number | null; price: number | null; version: number; }
+
+// Live catalog changes over Server-Sent Events; 'resync' means changes were dropped and the list should be refetched.
+export const subscribeSweetChanges = (onChange: (c: SweetChange) => void, onResync: () => void): (() => void) => {
+  const source = new EventSource('/api/sweets/stream');
+  source.addEventListener('change', e => onChange(JSON.parse((e as MessageEvent).data)));
+  source.addEventListener('resync', () => onResync());
+  return () => source.close();
+};
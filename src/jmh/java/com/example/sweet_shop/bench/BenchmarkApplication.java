@@ -0,0 +1,59 @@
+package com.example.sweet_shop.bench;
+
+import com.example.sweet_shop.SweetShopApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Boots the application against a private in-memory H2 database (test profile) for benchmarks.
+ * Properties are passed as command-line arguments so they override application.properties.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String database, String... extraProperties) {
+        return new SpringApplicationBuilder(SweetShopApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(args(database, extraProperties));
+    }
+
+    /**
+     * Same, but serving HTTP on a random port ({@code local.server.port}), with extra profiles on top of
+     * test and extra bean classes (e.g. probes) registered alongside the application.
+     */
+    static ConfigurableApplicationContext startServer(String database, String[] profiles, Class<?>[] extraBeans,
+                                                      String... extraProperties) {
+        return new SpringApplicationBuilder(SweetShopApplication.class)
+                .sources(extraBeans)
+                .profiles("test")
+                .profiles(profiles)
+                .web(WebApplicationType.SERVLET)
+                .run(args(database, extraProperties));
+    }
+
+    /**
+     * Reserves {@code count} sweet ids from id_generators and returns the first, for rows seeded with plain JDBC.
+     * The generator is the only source of ids, so seeding around it would collide with later application inserts.
+     */
+    static long reserveSweetIds(JdbcTemplate jdbc, int count) {
+        jdbc.update("UPDATE id_generators SET next_val = next_val + ? WHERE name = 'sweets'", count);
+        return jdbc.queryForObject("SELECT next_val FROM id_generators WHERE name = 'sweets'", Long.class) - count;
+    }
+
+    private static String[] args(String database, String... extraProperties) {
+        String[] args = new String[extraProperties.length + 4];
+        args[0] = "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;MODE=MySQL;IGNORECASE=TRUE";
+        args[1] = "--logging.level.root=WARN";
+        args[2] = "--spring.main.banner-mode=off";
+        args[3] = "--server.port=0";
+        for (int i = 0; i < extraProperties.length; i++) {
+            args[i + 4] = "--" + extraProperties[i];
+        }
+        return args;
+    }
+}
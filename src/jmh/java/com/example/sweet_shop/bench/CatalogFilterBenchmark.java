@@ -0,0 +1,78 @@
+package com.example.sweet_shop.bench;
+
+import com.example.sweet_shop.config.CatalogSearchProperties;
+import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import com.example.sweet_shop.dto.sweet.SweetSort;
+import com.example.sweet_shop.search.CatalogFilterEngine;
+import com.example.sweet_shop.service.SweetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of category / price-range searches over a large catalog: the JPA {@code Specification}
+ * query versus the in-memory bitset filter engine ({@code engine=true}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class CatalogFilterBenchmark {
+
+    private static final int CATEGORIES = 20;
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean engine;
+
+    private ConfigurableApplicationContext context;
+    private SweetService sweetService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start("bench_filter_" + rows + "_" + engine,
+                "app.sweets.search.filter-engine-enabled=" + engine);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        long firstId = BenchmarkApplication.reserveSweetIds(jdbc, rows);
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < rows; i++) {
+            BigDecimal price = BigDecimal.valueOf(50 + random.nextInt(4_950), 2);
+            batch.add(new Object[]{firstId + i, "sweet-" + i, "cat-" + (i % CATEGORIES), price, random.nextInt(100)});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbc.batchUpdate("insert into sweets (id, name, category, price, quantity) values (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        if (engine) context.getBean(CatalogFilterEngine.class).rebuild();
+        sweetService = context.getBean(SweetService.class);
+        context.getBean(CatalogSearchProperties.class).setFilterEngineEnabled(engine);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object categoryAndPrice() {
+        return sweetService.searchPage(new SweetSearchCriteria(null, "cat-7", new BigDecimal("10.00"), new BigDecimal("12.00")),
+                SweetSort.ID, null, 50);
+    }
+
+    @Benchmark
+    public Object narrowPriceRange() {
+        return sweetService.searchPage(new SweetSearchCriteria(null, null, new BigDecimal("10.00"), new BigDecimal("10.05")),
+                SweetSort.ID, null, 50);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.sweet_shop.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Compares two JMH JSON result files (e.g. the main branch and a change) benchmark by benchmark and
+ * exits with status 1 if anything regressed. A difference counts only when it exceeds the threshold
+ * percentage and the two scores' error intervals do not overlap. Throughput scores are better when
+ * higher, every other mode when lower.
+ * <p>
+ * Usage: {@code JmhResultComparison <baseline.json> <current.json> [thresholdPercent]}
+ */
+public final class JmhResultComparison {
+
+    private record Score(String mode, double score, double error, String unit) {}
+
+    private JmhResultComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: JmhResultComparison <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5.0;
+        Map<String, Score> baseline = read(new File(args[0]));
+        Map<String, Score> current = read(new File(args[1]));
+
+        int width = 0;
+        for (String key : current.keySet()) width = Math.max(width, key.length());
+        for (String key : baseline.keySet()) width = Math.max(width, key.length());
+        String row = "%-" + width + "s %18s %18s %9s%n";
+        int regressions = 0;
+        System.out.printf(row, "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null || !before.unit().equals(now.unit())) {
+                System.out.printf(row, entry.getKey(), "-", format(now), "new");
+                continue;
+            }
+            double change = (now.score() - before.score()) / before.score() * 100;
+            boolean higherIsBetter = "thrpt".equals(now.mode());
+            boolean significant = Math.abs(change) > threshold
+                    && (now.score() - now.error() > before.score() + before.error()
+                        || now.score() + now.error() < before.score() - before.error());
+            String verdict = !significant ? "" : (change > 0) == higherIsBetter ? " improved" : " REGRESSED";
+            if (verdict.equals(" REGRESSED")) regressions++;
+            System.out.printf("%-" + width + "s %18s %18s %+8.1f%%%s%n", entry.getKey(), format(before), format(now), change, verdict);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) System.out.printf(row, missing, format(baseline.get(missing)), "-", "gone");
+        }
+        System.out.printf("%n%d regression(s) beyond %.1f%%%n", regressions, threshold);
+        if (regressions > 0) System.exit(1);
+    }
+
+    // Key: benchmark method plus its @Param values, so each parameter combination is compared separately
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String name = run.get("benchmark").asText();
+            name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+            StringJoiner params = new StringJoiner(",", "(", ")");
+            params.setEmptyValue("");
+            Map<String, String> sorted = new TreeMap<>();
+            run.path("params").fields().forEachRemaining(p -> sorted.put(p.getKey(), p.getValue().asText()));
+            sorted.forEach((k, v) -> params.add(k + "=" + v));
+            JsonNode metric = run.get("primaryMetric");
+            double error = metric.get("scoreError").asDouble();
+            scores.put(name + params, new Score(run.get("mode").asText(), metric.get("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, metric.get("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    private static String format(Score s) {
+        return String.format(Locale.ROOT, "%.3f %s", s.score(), s.unit());
+    }
+}
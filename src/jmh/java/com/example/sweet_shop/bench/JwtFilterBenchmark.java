@@ -0,0 +1,63 @@
+package com.example.sweet_shop.bench;
+
+import com.example.sweet_shop.dto.UserRegistrationRequest;
+import com.example.sweet_shop.dto.auth.LoginRequest;
+import com.example.sweet_shop.security.JwtAuthenticationFilter;
+import com.example.sweet_shop.service.AuthService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through {@link JwtAuthenticationFilter} as wired in the application:
+ * token verification plus either a user lookup in H2 ({@code claims=false}) or the cached
+ * security-version check ({@code claims=true}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean claims;
+
+    private ConfigurableApplicationContext context;
+    private JwtAuthenticationFilter filter;
+    private String header;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start("bench_jwt_filter_" + claims,
+                "app.security.jwt.claims-authentication=" + claims,
+                "app.security.jwt.verified-token-cache-size=0");
+        AuthService authService = context.getBean(AuthService.class);
+        authService.register(new UserRegistrationRequest("filteruser", "filter@example.com", "Password1"));
+        header = "Bearer " + authService.login(new LoginRequest("filteruser", "Password1")).token();
+        filter = context.getBean(JwtAuthenticationFilter.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sweets/1");
+        request.addHeader("Authorization", header);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
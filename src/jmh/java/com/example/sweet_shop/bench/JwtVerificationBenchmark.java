@@ -0,0 +1,76 @@
+package com.example.sweet_shop.bench;
+
+import com.example.sweet_shop.config.JwtProperties;
+import com.example.sweet_shop.security.JwtTokenProvider;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.Key;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token handling: the previous filter path (new parser per call, isValid then extractUsername
+ * and extractRoles, i.e. three HMAC checks) versus one {@code verify} with and without the verified-token cache.
+ * {@code generateToken} is the login-side cost of signing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "0123456789ABCDEF0123456789ABCDEF0123456789AB";
+
+    private JwtTokenProvider uncached;
+    private JwtTokenProvider cached;
+    private Key key;
+    private String token;
+
+    @Setup
+    public void setup() {
+        uncached = new JwtTokenProvider(props(0));
+        cached = new JwtTokenProvider(props(10_000));
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        token = cached.generateToken("alice", List.of("ROLE_USER", "ROLE_ADMIN"), 0);
+    }
+
+    private static JwtProperties props(int cacheSize) {
+        JwtProperties props = new JwtProperties();
+        props.setSecret(SECRET);
+        props.setExpirationMinutes(60);
+        props.setVerifiedTokenCacheSize(cacheSize);
+        return props;
+    }
+
+    @Benchmark
+    public Object legacyTripleParse() {
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        String subject = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+        Object roles = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().get("roles", List.class);
+        return subject.hashCode() + roles.hashCode();
+    }
+
+    @Benchmark
+    public Object verifyUncached() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public Object verifyCached() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public boolean isValidUncached() {
+        return uncached.isValid(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncached.generateToken("alice", List.of("ROLE_USER", "ROLE_ADMIN"), 0);
+    }
+}
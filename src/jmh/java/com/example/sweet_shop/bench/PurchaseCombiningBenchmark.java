@@ -0,0 +1,66 @@
+package com.example.sweet_shop.bench;
+
+import com.example.sweet_shop.config.PurchaseCombiningProperties;
+import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.PurchaseCombiner;
+import com.example.sweet_shop.service.SweetService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flash-sale shape: many threads buying one sweet, per-request transactions versus combined batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(64)
+public class PurchaseCombiningBenchmark {
+
+    @Param({"2"})
+    public int windowMillis;
+
+    @Param({"64"})
+    public int maxBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private SweetService sweetService;
+    private PurchaseCombiner combiner;
+    private Long sweetId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start("bench_combining");
+        sweetService = context.getBean(SweetService.class);
+        var props = new PurchaseCombiningProperties();
+        props.setEnabled(true);
+        props.setWindow(Duration.ofMillis(windowMillis));
+        props.setMaxBatchSize(maxBatchSize);
+        combiner = new PurchaseCombiner(sweetService, props, new SimpleMeterRegistry());
+        sweetId = sweetService.create(new CreateSweetRequest("flash-sku", "Bench", new BigDecimal("1.00"), 1_000_000_000)).id();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.getBean(SweetRepository.class).deleteById(sweetId);
+        context.close();
+    }
+
+    @Benchmark
+    public Object perRequest() {
+        return sweetService.purchase(sweetId, 1);
+    }
+
+    @Benchmark
+    public Object combined() {
+        return combiner.purchase(sweetId, 1);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.sweet_shop.bench;
+
+import com.example.sweet_shop.domain.Sweet;
+import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Many threads buying one hot SKU: the guarded {@code UPDATE} purchase path versus the previous
+ * findById / check / setQuantity read-modify-write. Lost updates of the old path are printed on teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(16)
+public class PurchaseContentionBenchmark {
+
+    private static final int INITIAL_STOCK = 1_000_000_000;
+
+    private ConfigurableApplicationContext context;
+    private SweetService sweetService;
+    private SweetRepository sweetRepository;
+    private TransactionTemplate tx;
+    private Long sweetId;
+    private final LongAdder sold = new LongAdder();
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        if (context == null) {
+            context = BenchmarkApplication.start("bench_purchase");
+            sweetService = context.getBean(SweetService.class);
+            sweetRepository = context.getBean(SweetRepository.class);
+            tx = new TransactionTemplate(context.getBean(org.springframework.transaction.PlatformTransactionManager.class));
+        }
+        if (sweetId != null) sweetRepository.deleteById(sweetId);
+        sweetId = sweetService.create(new CreateSweetRequest("hot-sku", "Bench", new BigDecimal("1.00"), INITIAL_STOCK)).id();
+        sold.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportLostUpdates() {
+        long remaining = sweetRepository.findById(sweetId).map(Sweet::getQuantity).orElseThrow();
+        long lost = (INITIAL_STOCK - sold.sum()) - remaining;
+        System.out.printf("%n  sold=%d remaining=%d lostUpdates=%d%n", sold.sum(), remaining, -lost);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object guardedUpdate() {
+        Object r = sweetService.purchase(sweetId, 1);
+        sold.increment();
+        return r;
+    }
+
+    @Benchmark
+    public Object readModifyWrite() {
+        Object r = tx.execute(status -> {
+            Sweet s = sweetRepository.findById(sweetId).orElseThrow();
+            if (s.getQuantity() < 1) throw new IllegalArgumentException("insufficient stock");
+            s.setQuantity(s.getQuantity() - 1);
+            return s.getQuantity();
+        });
+        sold.increment();
+        return r;
+    }
+}
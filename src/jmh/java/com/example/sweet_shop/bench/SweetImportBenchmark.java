@@ -0,0 +1,77 @@
+package com.example.sweet_shop.bench;
+
+import com.example.sweet_shop.bulk.SweetImportReader;
+import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.dto.sweet.SweetExportFormat;
+import com.example.sweet_shop.service.SweetBulkService;
+import com.example.sweet_shop.service.SweetService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading {@code rows} new sweets: one {@link SweetService#create} per item versus a single NDJSON
+ * bulk import. Reported as time per batch of rows; divide to get rows per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SweetImportBenchmark {
+
+    @Param({"1000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private SweetService sweetService;
+    private SweetBulkService bulkService;
+    private ObjectMapper mapper;
+    private long run;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start("bench_import");
+        sweetService = context.getBean(SweetService.class);
+        bulkService = context.getBean(SweetBulkService.class);
+        mapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object perItem() {
+        long batch = run++;
+        Object last = null;
+        for (int i = 0; i < rows; i++) {
+            last = sweetService.create(new CreateSweetRequest("item-" + batch + "-" + i, "Bench", new BigDecimal("1.00"), 5));
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Object bulkImport() {
+        long batch = run++;
+        StringBuilder body = new StringBuilder(rows * 64);
+        for (int i = 0; i < rows; i++) {
+            body.append("{\"name\":\"bulk-").append(batch).append('-').append(i)
+                    .append("\",\"category\":\"Bench\",\"price\":1.00,\"quantity\":5}\n");
+        }
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "bench", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        return bulkService.importSweets(new SweetImportReader(
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)), SweetExportFormat.NDJSON, mapper));
+    }
+}
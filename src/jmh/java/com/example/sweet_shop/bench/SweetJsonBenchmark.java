@@ -0,0 +1,59 @@
+package com.example.sweet_shop.bench;
+
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of {@link SweetResponse} lists as the controllers return them: a page-sized list and
+ * a large unpaged search result. {@code mapper} is the per-call {@code writeValueAsBytes} the message
+ * converter effectively does; {@code typedWriter} reuses an {@link ObjectWriter} bound to the list type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SweetJsonBenchmark {
+
+    @Param({"50", "10000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private ObjectWriter typedWriter;
+    private List<SweetResponse> sweets;
+
+    @Setup
+    public void setup() {
+        // Same defaults Spring Boot applies (ISO-8601 dates, JavaTimeModule)
+        mapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        typedWriter = mapper.writerFor(new TypeReference<List<SweetResponse>>() {});
+        Instant now = Instant.parse("2025-01-01T10:00:00Z");
+        sweets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sweets.add(new SweetResponse((long) i, "Sweet \"" + i + "\"", "cat-" + (i % 20),
+                    BigDecimal.valueOf(100 + i % 900, 2), i % 50, now, i % 2 == 0 ? null : now.plusSeconds(i)));
+        }
+    }
+
+    @Benchmark
+    public byte[] mapper() throws Exception {
+        return mapper.writeValueAsBytes(sweets);
+    }
+
+    @Benchmark
+    public byte[] typedWriter() throws Exception {
+        return typedWriter.writeValueAsBytes(sweets);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.sweet_shop.bench;
+
+import com.example.sweet_shop.domain.Sweet;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Large search results read as managed entities then copied to responses (the previous path)
+ * versus selected straight into {@link SweetResponse}. Run with {@code -prof gc} to see allocation per op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class SweetReadPathBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private SweetService sweetService;
+    private SweetRepository sweetRepository;
+    private TransactionTemplate readOnlyTx;
+    private final SweetSearchCriteria criteria = new SweetSearchCriteria(null, "Bench", null, null);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start("bench_read_" + rows,
+                "app.sweets.search.result-cache-size=0");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        long firstId = BenchmarkApplication.reserveSweetIds(jdbc, rows);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{firstId + i, "sweet-" + i, "Bench", BigDecimal.valueOf(100 + i % 900, 2), i % 50});
+        }
+        jdbc.batchUpdate("insert into sweets (id, name, category, price, quantity) values (?, ?, ?, ?, ?)", batch);
+        sweetService = context.getBean(SweetService.class);
+        sweetRepository = context.getBean(SweetRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object entities() {
+        Specification<Sweet> spec = (root, q, cb) -> cb.equal(root.get("category"), "Bench");
+        return readOnlyTx.execute(status -> sweetRepository.findAll(spec, Sort.by("id")).stream()
+                .map(s -> new SweetResponse(s.getId(), s.getName(), s.getCategory(), s.getPrice(), s.getQuantity(),
+                        s.getCreatedAt(), s.getUpdatedAt()))
+                .toList());
+    }
+
+    @Benchmark
+    public Object projection() {
+        return sweetService.search(criteria);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.sweet_shop.bench;
+
+import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import com.example.sweet_shop.dto.sweet.SweetSort;
+import com.example.sweet_shop.service.SweetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SweetService} search over H2 as the catalog grows (result cache off, SQL path only):
+ * an unpaged category search that always matches about 0.1% of rows, and first pages sorted by id and by price.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class SweetSearchBenchmark {
+
+    private static final int CATEGORIES = 1_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private SweetService sweetService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start("bench_search_" + rows,
+                "app.sweets.search.result-cache-size=0");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        long firstId = BenchmarkApplication.reserveSweetIds(jdbc, rows);
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < rows; i++) {
+            BigDecimal price = BigDecimal.valueOf(50 + random.nextInt(4_950), 2);
+            batch.add(new Object[]{firstId + i, "sweet-" + i, "cat-" + (i % CATEGORIES), price, random.nextInt(100)});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbc.batchUpdate("insert into sweets (id, name, category, price, quantity) values (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        sweetService = context.getBean(SweetService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object searchCategory() {
+        return sweetService.search(new SweetSearchCriteria(null, "cat-7", null, null));
+    }
+
+    @Benchmark
+    public Object firstPageById() {
+        return sweetService.searchPage(new SweetSearchCriteria(null, null, null, null), SweetSort.ID, null, 50);
+    }
+
+    @Benchmark
+    public Object firstPageByPriceInRange() {
+        return sweetService.searchPage(new SweetSearchCriteria(null, null, new BigDecimal("10.00"), new BigDecimal("20.00")),
+                SweetSort.PRICE, null, 50);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.sweet_shop.bench;
+
+import com.example.sweet_shop.dto.UserRegistrationRequest;
+import com.example.sweet_shop.service.AuthService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.coyote.AbstractProtocol;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Real HTTP load against the H2 test profile with more concurrent clients than Tomcat has request threads:
+ * platform threads versus the {@code virtual-threads} profile. {@code getById} is blocking JDBC behind JWT auth,
+ * {@code login} is BCrypt plus a user lookup. Sample mode reports p50/p99; peak concurrently served requests,
+ * open connections and pool usage, and non-2xx responses, are printed after each iteration.
+ * The pool size is pinned so only the thread mode differs; raise {@code tomcatThreads} to 200 for the production default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(128)
+public class ThreadModeLoadBenchmark {
+
+    private static final int SWEETS = 10_000;
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"32"})
+    public int tomcatThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String token;
+    private HikariPoolMXBean pool;
+    private AbstractProtocol<?> protocol;
+    private Thread sampler;
+    private volatile int peakConnections;
+    private volatile int peakActiveDb;
+    private volatile int peakAwaitingDb;
+    private final LongAdder failures = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String[] profiles = "virtual".equals(mode) ? new String[]{"virtual-threads"} : new String[0];
+        context = BenchmarkApplication.startServer("bench_load_" + mode, profiles, new Class<?>[]{InFlightProbe.class},
+                "server.tomcat.threads.max=" + tomcatThreads,
+                "spring.datasource.hikari.maximum-pool-size=20",
+                "app.sweets.search.result-cache-size=0");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        long firstId = BenchmarkApplication.reserveSweetIds(jdbc, SWEETS);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < SWEETS; i++) {
+            batch.add(new Object[]{firstId + i, "sweet-" + i, "Bench", BigDecimal.valueOf(100 + i % 900, 2), i % 50});
+        }
+        jdbc.batchUpdate("insert into sweets (id, name, category, price, quantity) values (?, ?, ?, ?, ?)", batch);
+        context.getBean(AuthService.class).register(new UserRegistrationRequest("loaduser", "load@example.com", "Password1"));
+
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpResponse<String> login = client.send(loginRequest(), HttpResponse.BodyHandlers.ofString());
+        Matcher m = TOKEN.matcher(login.body());
+        if (!m.find()) throw new IllegalStateException("login failed: " + login.body());
+        token = m.group(1);
+
+        pool = context.getBean(HikariDataSource.class).getHikariPoolMXBean();
+        protocol = (AbstractProtocol<?>) ((TomcatWebServer) ((ServletWebServerApplicationContext) context).getWebServer())
+                .getTomcat().getConnector().getProtocolHandler();
+        sampler = Thread.ofPlatform().daemon().name("load-sampler").start(this::sample);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeaks() {
+        InFlightProbe.peak.set(0);
+        peakConnections = 0;
+        peakActiveDb = 0;
+        peakAwaitingDb = 0;
+        failures.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        System.out.printf("%n  [%s] peak in-flight requests=%d open connections=%d db active=%d db waiting=%d non-2xx=%d%n",
+                mode, InFlightProbe.peak.get(), peakConnections, peakActiveDb, peakAwaitingDb, failures.sum());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        sampler.interrupt();
+        context.close();
+    }
+
+    @Benchmark
+    public int getById() throws Exception {
+        long id = ThreadLocalRandom.current().nextLong(1, SWEETS + 1);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/sweets/" + id))
+                .header("Authorization", "Bearer " + token)
+                .GET().build();
+        return send(request);
+    }
+
+    @Benchmark
+    public int login() throws Exception {
+        return send(loginRequest());
+    }
+
+    private HttpRequest loginRequest() {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"loaduser\",\"password\":\"Password1\"}"))
+                .build();
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status / 100 != 2) failures.increment();
+        return status;
+    }
+
+    private void sample() {
+        while (!Thread.currentThread().isInterrupted()) {
+            peakConnections = Math.max(peakConnections, (int) protocol.getConnectionCount());
+            peakActiveDb = Math.max(peakActiveDb, pool.getActiveConnections());
+            peakAwaitingDb = Math.max(peakAwaitingDb, pool.getThreadsAwaitingConnection());
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /** Counts requests concurrently inside the servlet pipeline, i.e. actually being served rather than queued. */
+    public static class InFlightProbe extends OncePerRequestFilter {
+
+        static final AtomicInteger peak = new AtomicInteger();
+        private final AtomicInteger current = new AtomicInteger();
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                current.decrementAndGet();
+            }
+        }
+    }
+}
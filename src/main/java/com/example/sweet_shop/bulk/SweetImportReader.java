@@ -0,0 +1,142 @@
+package com.example.sweet_shop.bulk;
+
+import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.dto.sweet.SweetExportFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reads an uploaded catalog one line at a time, in the same NDJSON / CSV shapes the export writes.
+ * A line that cannot be parsed becomes a {@link Row} carrying an error instead of aborting the import.
+ * CSV needs a header naming at least {@code name,category,price,quantity} (any order, extra columns
+ * ignored); quoted fields may contain commas and doubled quotes but not line breaks.
+ */
+public class SweetImportReader implements Iterator<SweetImportReader.Row>, Closeable {
+
+    public record Row(int line, CreateSweetRequest request, String error) {
+        public String name() {
+            return request == null ? null : request.name();
+        }
+    }
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "category", "price", "quantity");
+
+    private final BufferedReader reader;
+    private final SweetExportFormat format;
+    private final ObjectMapper mapper;
+    private int[] csvIndexes;
+    private int lineNumber;
+    private Row next;
+
+    public SweetImportReader(InputStream in, SweetExportFormat format, ObjectMapper mapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.format = format;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) next = readRow();
+        return next != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row readRow() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                if (format == SweetExportFormat.CSV && csvIndexes == null) {
+                    csvIndexes = header(line);
+                    continue;
+                }
+                return format == SweetExportFormat.CSV ? csvRow(line) : jsonRow(line);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Row jsonRow(String line) {
+        try {
+            return new Row(lineNumber, mapper.readValue(line, CreateSweetRequest.class), null);
+        } catch (JsonProcessingException e) {
+            return new Row(lineNumber, null, "malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row csvRow(String line) {
+        List<String> fields = splitCsv(line);
+        String[] values = new String[CSV_COLUMNS.size()];
+        for (int i = 0; i < values.length; i++) {
+            int idx = csvIndexes[i];
+            values[i] = idx < fields.size() ? fields.get(idx) : null;
+        }
+        try {
+            BigDecimal price = values[2] == null || values[2].isBlank() ? null : new BigDecimal(values[2].trim());
+            Integer quantity = values[3] == null || values[3].isBlank() ? null : Integer.valueOf(values[3].trim());
+            return new Row(lineNumber, new CreateSweetRequest(values[0], values[1], price, quantity), null);
+        } catch (NumberFormatException e) {
+            return new Row(lineNumber, null, "malformed number in CSV row");
+        }
+    }
+
+    private static int[] header(String line) {
+        List<String> names = splitCsv(line).stream().map(h -> h.trim().toLowerCase(Locale.ROOT)).toList();
+        int[] indexes = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("CSV header must include " + String.join(",", CSV_COLUMNS));
+            }
+        }
+        return indexes;
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
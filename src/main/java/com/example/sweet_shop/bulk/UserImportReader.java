@@ -0,0 +1,74 @@
+package com.example.sweet_shop.bulk;
+
+import com.example.sweet_shop.dto.UserRegistrationRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads an NDJSON body of registrations ({@code username}, {@code email}, {@code password} per line) one
+ * line at a time. A line that cannot be parsed becomes a {@link Row} carrying an error instead of aborting.
+ */
+public class UserImportReader implements Iterator<UserImportReader.Row>, Closeable {
+
+    public record Row(int line, UserRegistrationRequest request, String error) {
+        public String username() {
+            return request == null ? null : request.username();
+        }
+
+        public String email() {
+            return request == null ? null : request.email();
+        }
+    }
+
+    private final BufferedReader reader;
+    private final ObjectMapper mapper;
+    private int lineNumber;
+    private Row next;
+
+    public UserImportReader(InputStream in, ObjectMapper mapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.mapper = mapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) next = readRow();
+        return next != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row readRow() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                try {
+                    return new Row(lineNumber, mapper.readValue(line, UserRegistrationRequest.class), null);
+                } catch (JsonProcessingException e) {
+                    return new Row(lineNumber, null, "malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
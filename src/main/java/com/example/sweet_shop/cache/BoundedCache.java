@@ -0,0 +1,94 @@
+package com.example.sweet_shop.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small in-process LRU cache with a per-entry deadline. Entries expire after the configured TTL or at an
+ * explicit earlier instant given to {@link #put(Object, Object, long)}. Hit, miss and eviction counts
+ * are kept for metrics. A {@code maxSize} of 0 disables caching entirely.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> map;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evict = size() > BoundedCache.this.maxSize;
+                if (evict) evictions.increment();
+                return evict;
+            }
+        };
+    }
+
+    public V get(K key) {
+        if (maxSize == 0) {
+            misses.increment();
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (map) {
+            Entry<V> e = map.get(key);
+            if (e != null && e.expiresAt() > now) {
+                hits.increment();
+                return e.value();
+            }
+            if (e != null) {
+                map.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, Long.MAX_VALUE);
+    }
+
+    // notAfterMillis: epoch millis after which the value must no longer be served
+    public void put(K key, V value, long notAfterMillis) {
+        if (maxSize == 0) return;
+        long expiresAt = Math.min(System.currentTimeMillis() + ttlMillis, notAfterMillis);
+        synchronized (map) {
+            map.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    public void clear() {
+        synchronized (map) {
+            map.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+}
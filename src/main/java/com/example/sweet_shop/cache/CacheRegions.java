@@ -0,0 +1,16 @@
+package com.example.sweet_shop.cache;
+
+/**
+ * Hibernate second-level cache regions. Each one is created up front, with its own sizing, by
+ * {@link com.example.sweet_shop.config.SecondLevelCacheConfig}; an annotation naming any other region fails startup.
+ */
+public final class CacheRegions {
+
+    public static final String SWEETS = "sweets";
+    public static final String ROLES = "roles";
+    public static final String USER_ROLES = "user-roles";
+    public static final String ROLE_BY_NAME = "role-by-name";
+
+    private CacheRegions() {
+    }
+}
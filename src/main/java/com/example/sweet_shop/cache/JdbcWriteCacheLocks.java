@@ -0,0 +1,54 @@
+package com.example.sweet_shop.cache;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Second-level cache invalidation for rows written with plain JDBC, behind Hibernate's back. It follows the
+ * protocol Hibernate uses for its own updates: each entry is soft-locked inside the writing transaction, so no
+ * reader caches the old row while the write is in flight, and unlocked after completion, which also rejects puts
+ * from loads that started before the commit. A plain evict after commit would let such a load put the old row back.
+ */
+public final class JdbcWriteCacheLocks {
+
+    private JdbcWriteCacheLocks() {
+    }
+
+    /**
+     * Soft-locks the cached entries for {@code ids} until the current transaction completes. Call it before the
+     * JDBC write, on the transaction's entity manager. A no-op when the entity is not cached.
+     */
+    public static void lockForWrite(EntityManager entityManager, Class<?> entityClass, Collection<?> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("cache entries can only be locked inside a transaction");
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(entityClass);
+        if (!persister.canWriteToCache()) return;
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        List<Object> keys = new ArrayList<>(ids.size());
+        List<SoftLock> locks = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            Object key = access.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+            keys.add(key);
+            locks.add(access.lockItem(session, key, null));
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = 0; i < keys.size(); i++) {
+                    access.unlockItem(session, keys.get(i), locks.get(i));
+                }
+            }
+        });
+    }
+}
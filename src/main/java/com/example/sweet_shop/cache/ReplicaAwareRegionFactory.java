@@ -0,0 +1,30 @@
+package com.example.sweet_shop.cache;
+
+import com.example.sweet_shop.routing.ReplicaRouter;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.jcache.internal.JCacheAccessImpl;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Hibernate's JCache region factory, except that entities and collections loaded by a transaction reading from a
+ * replica are not cached. A lagging replica's rows would otherwise be served to every user, including one who
+ * just wrote a newer version, until the next write or the region TTL. Such reads still hit the cache.
+ */
+public class ReplicaAwareRegionFactory extends JCacheRegionFactory {
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new JCacheAccessImpl(getOrCreateCache(regionConfig.getRegionName(), buildingContext.getSessionFactory())) {
+            @Override
+            public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+                if (!ReplicaRouter.readingFromReplica()) {
+                    super.putIntoCache(key, value, session);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.sweet_shop.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.sweets.bulk")
+public class BulkOperationProperties {
+    // Rows written per transaction; a failing chunk is retried row by row
+    @Min(1)
+    private int chunkSize = 500;
+    // Upper bound on rows accepted by one bulk request, so the per-row report stays bounded
+    @Min(1)
+    private int maxRows = 100_000;
+}
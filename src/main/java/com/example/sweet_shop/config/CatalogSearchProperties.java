@@ -0,0 +1,40 @@
+package com.example.sweet_shop.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.sweets.search")
+public class CatalogSearchProperties {
+    // Serve name substring filters from the in-memory trigram index once it is built
+    private boolean nameIndexEnabled = true;
+    // Above this many candidate ids the index defers to SQL LIKE rather than send a huge IN list
+    @Min(1)
+    private int nameIndexMaxCandidates = 1_000;
+    // Answer id-ordered category / price / name searches from in-memory bitsets instead of SQL
+    private boolean filterEngineEnabled = false;
+    // Price changes, or out-of-order inserts, buffered outside the sorted columns before they are compacted
+    @Min(1)
+    private int filterEngineCompactThreshold = 4_096;
+    // Search pages remembered per catalog version (0 disables)
+    @Min(0)
+    private int resultCacheSize = 1_000;
+    @NotNull
+    private Duration resultCacheTtl = Duration.ofSeconds(30);
+    // How often a node re-reads the shared catalog version; bounds how long another node's write can go unseen
+    @NotNull
+    private Duration versionCheckInterval = Duration.ofSeconds(1);
+    // JDBC fetch size of the streaming export; bounds how many rows are in memory at once
+    @Min(1)
+    private int exportFetchSize = 500;
+}
@@ -0,0 +1,32 @@
+package com.example.sweet_shop.config;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.jfr")
+public class JfrRecordingProperties {
+    // Used when POST /actuator/jfr names no duration; the recording stops itself afterwards
+    @NotNull
+    private Duration defaultDuration = Duration.ofMinutes(2);
+    // Upper bound on any requested duration
+    @NotNull
+    private Duration maxDuration = Duration.ofMinutes(15);
+    // Oldest chunks are discarded beyond this, so a forgotten recording cannot fill the disk
+    @NotNull
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    // JDK settings file: "default" (~1% overhead) or "profile" (more sampling, ~2%)
+    @NotBlank
+    private String settings = "profile";
+}
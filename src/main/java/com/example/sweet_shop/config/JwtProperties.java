@@ -2,12 +2,15 @@ package com.example.sweet_shop.config;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+
 @Getter
 @Setter
 @Validated
@@ -18,4 +21,14 @@ public class JwtProperties {
     private String secret;
     @Min(1)
     private long expirationMinutes;
+    // Build the Authentication from verified token claims instead of loading the user on every request
+    private boolean claimsAuthentication = false;
+    // How long a user's security version is trusted before it is re-read from the database
+    @NotNull
+    private Duration securityVersionTtl = Duration.ofSeconds(30);
+    // Verified tokens remembered by digest (0 disables); entries never outlive the token itself
+    @Min(0)
+    private int verifiedTokenCacheSize = 10_000;
+    @NotNull
+    private Duration verifiedTokenCacheTtl = Duration.ofMinutes(5);
 }
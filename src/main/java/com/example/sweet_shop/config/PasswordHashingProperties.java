@@ -0,0 +1,27 @@
+package com.example.sweet_shop.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.security.password")
+public class PasswordHashingProperties {
+    // BCrypt cost factor; stored hashes with a lower cost are re-hashed on the user's next login
+    @Min(4)
+    @Max(31)
+    private int strength = 10;
+    // Hashing threads (0 = one per available processor)
+    @Min(0)
+    private int threads = 0;
+    // Hash requests allowed to wait for a thread; beyond that login/registration answer 503 immediately
+    @Min(1)
+    private int queueCapacity = 64;
+}
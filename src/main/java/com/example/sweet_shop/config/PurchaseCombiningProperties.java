@@ -0,0 +1,30 @@
+package com.example.sweet_shop.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.sweets.purchase-combining")
+public class PurchaseCombiningProperties {
+    // Opt-in: when off, every purchase is its own guarded UPDATE
+    private boolean enabled = false;
+    // How long the first buyer of a sweet waits for others to join its batch
+    @NotNull
+    private Duration window = Duration.ofMillis(2);
+    // A batch closes early once this many purchases have joined
+    @Min(1)
+    private int maxBatchSize = 64;
+    // How long a joined buyer waits for its batch to start before giving up with 503, uncharged
+    @NotNull
+    private Duration followerTimeout = Duration.ofSeconds(5);
+}
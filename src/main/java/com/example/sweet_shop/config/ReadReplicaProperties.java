@@ -0,0 +1,53 @@
+package com.example.sweet_shop.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class ReadReplicaProperties {
+    // Off: one pool on spring.datasource for everything. On: read-only transactions go to the replicas below
+    private boolean enabled = false;
+    @Valid
+    private List<Replica> replicas = new ArrayList<>();
+    // Replicas further behind the primary than this stop receiving reads until they catch up
+    @NotNull
+    private Duration maxLag = Duration.ofSeconds(2);
+    // How often the primary's heartbeat row is written and every replica's copy read back
+    @NotNull
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+    // After a user's committed write, that user's reads stay on the primary this long (read-your-writes)
+    @NotNull
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    @Getter
+    @Setter
+    public static class Replica {
+        // Used in pool names and meter tags
+        @NotBlank
+        private String name;
+        @NotBlank
+        private String url;
+        private String username;
+        private String password;
+        // Relative share of reads among the replicas that are within max-lag
+        @Min(1)
+        private int weight = 1;
+        @Min(1)
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.sweet_shop.config;
+
+import com.example.sweet_shop.routing.ReplicaRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces Boot's single pool with {@link ReplicaRouter} when {@code app.datasource.routing.enabled=true}.
+ * The primary pool is still configured from {@code spring.datasource.*}; the pools stay out of the context so
+ * the only DataSource bean is the routing one (and the SQL statement counter wraps it exactly once).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRouter replicaRouter(DataSourceProperties dataSourceProperties, Environment environment,
+                                       ReadReplicaProperties props, MeterRegistry registry) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        return new ReplicaRouter(primary, props, registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRouter replicaRouter) {
+        return replicaRouter.dataSource();
+    }
+}
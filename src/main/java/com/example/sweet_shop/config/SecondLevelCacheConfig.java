@@ -0,0 +1,107 @@
+package com.example.sweet_shop.config;
+
+import com.example.sweet_shop.cache.CacheRegions;
+import com.example.sweet_shop.cache.ReplicaAwareRegionFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Hibernate second-level cache on an in-process JCache provider (Ehcache, on-heap). Every region is declared here
+ * with its own bounds; Hibernate is set to fail on any region it would otherwise create with provider defaults.
+ * Which entities, collections and queries are cached is declared on them, naming a {@link CacheRegions} constant.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.cache.second-level", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    // Query cache bookkeeping: one entry per table, and query results are only valid against them
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+    // Closed by Hibernate together with the session factory
+    @Bean(destroyMethod = "")
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties props) {
+        var config = ConfigurationBuilder.newConfigurationBuilder()
+                .withCache(CacheRegions.SWEETS, region(props.getSweets().getMaxEntries(), props.getSweets().getTtl()))
+                .withCache(CacheRegions.USER_ROLES,
+                        region(props.getUserRoles().getMaxEntries(), props.getUserRoles().getTtl()))
+                .withCache(CacheRegions.ROLES, region(props.getRoleEntries(), null))
+                .withCache(CacheRegions.ROLE_BY_NAME, region(props.getRoleEntries(), null))
+                .withCache(QUERY_RESULTS_REGION, region(1_000, Duration.ofMinutes(10)))
+                // Must never expire before the query results that depend on it
+                .withCache(TIMESTAMPS_REGION, region(1_000, null))
+                .build();
+        // The provider hands out managers by URI: a fresh one per context keeps test contexts from sharing regions
+        return new EhcacheCachingProvider().getCacheManager(URI.create("urn:sweet-shop:l2:" + UUID.randomUUID()), config);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, new ReplicaAwareRegionFactory());
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    /**
+     * {@code hibernate.cache.hit.ratio{region}}: hits over lookups since startup, NaN before the first lookup.
+     * Hibernate's own binder exports the underlying counters ({@code hibernate_second_level_cache_requests_total},
+     * {@code hibernate_cache_query_requests_total}) for windowed ratios.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheHitRatios(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (String region : new String[]{CacheRegions.SWEETS, CacheRegions.ROLES, CacheRegions.USER_ROLES}) {
+                hitRatio(registry, region, statistics, s -> s.getDomainDataRegionStatistics(region));
+            }
+            hitRatio(registry, CacheRegions.ROLE_BY_NAME, statistics,
+                    s -> s.getQueryRegionStatistics(CacheRegions.ROLE_BY_NAME));
+        };
+    }
+
+    private static void hitRatio(MeterRegistry registry, String region, Statistics statistics,
+                                 Function<Statistics, CacheRegionStatistics> lookup) {
+        Gauge.builder("hibernate.cache.hit.ratio", statistics, s -> {
+                    CacheRegionStatistics stats = lookup.apply(s);
+                    if (stats == null) return Double.NaN;
+                    long lookups = stats.getHitCount() + stats.getMissCount();
+                    return lookups == 0 ? Double.NaN : (double) stats.getHitCount() / lookups;
+                })
+                .tag("region", region)
+                .register(registry);
+    }
+
+    private static CacheConfiguration<Object, Object> region(long maxEntries, Duration ttl) {
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                        ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ttl == null ? ExpiryPolicyBuilder.noExpiration() : ExpiryPolicyBuilder.timeToLiveExpiration(ttl))
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.sweet_shop.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.cache.second-level")
+public class SecondLevelCacheProperties {
+    // Hibernate second-level and query cache, held on-heap by Ehcache behind JCache
+    private boolean enabled = true;
+    @Valid
+    private Region sweets = new Region(10_000, Duration.ofMinutes(10));
+    // User id -> role ids, read when users are loaded without joining their roles
+    @Valid
+    private Region userRoles = new Region(10_000, Duration.ofMinutes(30));
+    // Roles never change at runtime: sized for the handful that exist, never expired
+    @Min(1)
+    private long roleEntries = 100;
+
+    @Getter
+    @Setter
+    public static class Region {
+        @Min(1)
+        private long maxEntries;
+        // Bounds how long a row changed behind Hibernate's back (plain SQL, another instance) can be served stale
+        @NotNull
+        private Duration ttl;
+
+        public Region() {
+        }
+
+        public Region(long maxEntries, Duration ttl) {
+            this.maxEntries = maxEntries;
+            this.ttl = ttl;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.sweet_shop.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,6 +14,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RegexRequestMatcher;
 
 import com.example.sweet_shop.security.JwtAuthenticationFilter;
 import com.example.sweet_shop.security.RestAuthenticationEntryPoint;
@@ -32,19 +34,27 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties props) {
+        return new BCryptPasswordEncoder(props.getStrength());
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           @Value("${app.security.public-prometheus:false}") boolean publicPrometheus) throws Exception {
+        if (publicPrometheus) {
+            // Registered first so it wins over the admin-only /actuator/** rule below
+            http.authorizeHttpRequests(auth -> auth.requestMatchers(HttpMethod.GET, "/actuator/prometheus").permitAll());
+        }
     http.csrf(csrf -> csrf.disable())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .authorizeHttpRequests(auth -> auth
             .requestMatchers("/", "/index.html", "/styles.css", "/sweets.html", "/admin.html", "/register.html", "/login.html", "/favicon.ico").permitAll()
             .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+            .requestMatchers("/actuator/**").hasRole("ADMIN")
             .requestMatchers("/api/auth/**").permitAll()
-            .requestMatchers(HttpMethod.GET, "/api/sweets", "/api/sweets/search").permitAll()
+            .requestMatchers(HttpMethod.GET, "/api/sweets", "/api/sweets/search", "/api/sweets/stream").permitAll()
+            // Catalog reads are public in every shape: the list and ?ids= return the same rows as a single lookup
+            .requestMatchers(RegexRequestMatcher.regexMatcher(HttpMethod.GET, "/api/sweets/\\d+")).permitAll()
             .anyRequest().authenticated())
         .anonymous(a -> a.disable())
         .exceptionHandling(ex -> ex.authenticationEntryPoint(restAuthenticationEntryPoint));
@@ -0,0 +1,35 @@
+package com.example.sweet_shop.config;
+
+import com.example.sweet_shop.jdbc.QueryBudgetFilter;
+import com.example.sweet_shop.jdbc.StatementCountingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql.inspection", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInspectionConfig {
+
+    // Static so it is registered before the DataSource is created, without pulling this configuration in early
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public QueryBudgetFilter queryBudgetFilter(SqlInspectionProperties props, MeterRegistry registry) {
+        return new QueryBudgetFilter(props, registry);
+    }
+}
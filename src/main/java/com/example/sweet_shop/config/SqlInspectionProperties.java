@@ -0,0 +1,24 @@
+package com.example.sweet_shop.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.sql.inspection")
+public class SqlInspectionProperties {
+    // Wraps the DataSource to count statements and fetched rows per HTTP request; off = no JDBC proxies at all
+    private boolean enabled = true;
+    // A request running more statements than this is logged and counted as sql.request.over.budget
+    @Min(0)
+    private int statementBudget = 10;
+    // Same for rows read from result sets
+    @Min(0)
+    private int rowBudget = 1000;
+}
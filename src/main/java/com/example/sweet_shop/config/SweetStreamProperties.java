@@ -0,0 +1,36 @@
+package com.example.sweet_shop.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.sweets.stream")
+public class SweetStreamProperties {
+    // Changes buffered per subscriber; on overflow the buffer is dropped and the client told to resync
+    @Min(1)
+    private int bufferSize = 256;
+    // Comment line sent on idle connections so proxies keep them open
+    @NotNull
+    private Duration heartbeat = Duration.ofSeconds(15);
+    // Connections are closed after this long; EventSource clients reconnect on their own
+    @NotNull
+    private Duration timeout = Duration.ofMinutes(30);
+    @Min(1)
+    private int maxSubscribers = 10_000;
+    // Streams one signed-in user may hold, so no one client can take the global cap
+    @Min(1)
+    private int maxSubscribersPerClient = 4;
+    // Streams all anonymous clients behind one address may hold; looser, since many visitors can share a NAT
+    @Min(1)
+    private int maxSubscribersPerAddress = 64;
+}
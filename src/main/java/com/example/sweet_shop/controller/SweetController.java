@@ -1,18 +1,40 @@
 package com.example.sweet_shop.controller;
 
+import com.example.sweet_shop.bulk.SweetImportReader;
 import com.example.sweet_shop.dto.sweet.*;
+import com.example.sweet_shop.export.SweetExportWriter;
+import com.example.sweet_shop.service.PurchaseCombiner;
+import com.example.sweet_shop.service.SweetBulkService;
 import com.example.sweet_shop.service.SweetService;
+import com.example.sweet_shop.stream.SweetChangeBroadcaster;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Instant;
 import java.util.List;
+import java.util.StringJoiner;
 
 @RestController
 @RequestMapping("/api/sweets")
@@ -20,31 +42,150 @@ import java.util.List;
 public class SweetController {
 
     private final SweetService sweetService;
+    private final PurchaseCombiner purchaseCombiner;
+    private final SweetBulkService sweetBulkService;
+    private final SweetChangeBroadcaster changeBroadcaster;
+    private final ObjectMapper objectMapper;
 
-    public SweetController(SweetService sweetService) {
+    public SweetController(SweetService sweetService, PurchaseCombiner purchaseCombiner, SweetBulkService sweetBulkService,
+                           SweetChangeBroadcaster changeBroadcaster, ObjectMapper objectMapper) {
         this.sweetService = sweetService;
+        this.purchaseCombiner = purchaseCombiner;
+        this.sweetBulkService = sweetBulkService;
+        this.changeBroadcaster = changeBroadcaster;
+        this.objectMapper = objectMapper;
     }
 
-    // Public list (simple list w/out filters)
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Public list, keyset paged; any filter query param narrows the result like /search
     @GetMapping
-    public List<SweetResponse> listAll(@RequestParam(name = "name", required = false) String name,
-                                       @RequestParam(name = "category", required = false) String category,
-                                       @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
-                                       @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice) {
-        // If any filter query param supplied treat as search; else broad search with empty criteria
-        if (name != null || category != null || minPrice != null || maxPrice != null) {
-            return sweetService.search(new SweetSearchCriteria(name, category, minPrice, maxPrice));
-        }
-        return sweetService.search(new SweetSearchCriteria(null, null, null, null));
+    public ResponseEntity<List<SweetResponse>> listAll(@RequestParam(name = "name", required = false) String name,
+                                                       @RequestParam(name = "category", required = false) String category,
+                                                       @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+                                                       @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+                                                       @RequestParam(name = "sort", required = false) String sort,
+                                                       @RequestParam(name = "cursor", required = false) String cursor,
+                                                       @RequestParam(name = "size", defaultValue = "" + SweetService.DEFAULT_PAGE_SIZE)
+                                                       @Positive(message = "size must be > 0") int size,
+                                                       WebRequest request) {
+        return page(new SweetSearchCriteria(name, category, minPrice, maxPrice), sort, cursor, size, request);
+    }
+
+    // Multi-get: GET /api/sweets?ids=1,2,3 resolves many sweets in one round trip
+    @GetMapping(params = "ids")
+    public SweetBatchResponse getByIds(@RequestParam(name = "ids") List<Long> ids) {
+        return sweetService.getByIds(ids);
     }
 
     // Dedicated search endpoint (legacy from plan) still supported
     @GetMapping("/search")
-    public List<SweetResponse> search(@RequestParam(name = "name", required = false) String name,
-                                      @RequestParam(name = "category", required = false) String category,
-                                      @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
-                                      @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice) {
-        return sweetService.search(new SweetSearchCriteria(name, category, minPrice, maxPrice));
+    public ResponseEntity<List<SweetResponse>> search(@RequestParam(name = "name", required = false) String name,
+                                                      @RequestParam(name = "category", required = false) String category,
+                                                      @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+                                                      @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+                                                      @RequestParam(name = "sort", required = false) String sort,
+                                                      @RequestParam(name = "cursor", required = false) String cursor,
+                                                      @RequestParam(name = "size", defaultValue = "" + SweetService.DEFAULT_PAGE_SIZE)
+                                                      @Positive(message = "size must be > 0") int size,
+                                                      WebRequest request) {
+        return page(new SweetSearchCriteria(name, category, minPrice, maxPrice), sort, cursor, size, request);
+    }
+
+    // Body stays a plain JSON array for existing clients; the continuation token travels in a header.
+    // The weak ETag is the shared catalog version plus the whole normalized query, so a repeat poll of an
+    // unchanged catalog gets a 304 without searching or serializing anything, from any node. A page read from a replica is sent
+    // untagged: the replica may not have reached the version the tag would claim.
+    private ResponseEntity<List<SweetResponse>> page(SweetSearchCriteria criteria, String sort, String cursor, int size,
+                                                     WebRequest request) {
+        SweetSort sweetSort = SweetSort.from(sort);
+        String version = sweetService.catalogTag();
+        String etag = version == null ? null
+                : weakEtag(version + "-" + queryKey(criteria.normalized(), sweetSort, cursor, size));
+        // Matched by hand: checkNotModified would tag the response before we know where the page is read from
+        if (etag != null && ifNoneMatch(request, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).eTag(etag).build();
+        }
+        SweetPage page = sweetService.searchPage(criteria, sweetSort, cursor, size);
+        var builder = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (etag != null && !page.fromReplica()) {
+            builder.eTag(etag);
+        }
+        if (page.nextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return builder.body(page.items());
+    }
+
+    private static String weakEtag(String value) {
+        return "W/\"" + value + "\"";
+    }
+
+    // Spelled out rather than hashed so two queries can never share a tag; URL-encoding keeps it a valid ETag
+    private static String queryKey(SweetSearchCriteria criteria, SweetSort sort, String cursor, int size) {
+        StringJoiner key = new StringJoiner("&");
+        if (criteria.name() != null) key.add("name=" + encode(criteria.name()));
+        if (criteria.category() != null) key.add("category=" + encode(criteria.category()));
+        if (criteria.minPrice() != null) key.add("minPrice=" + criteria.minPrice().toPlainString());
+        if (criteria.maxPrice() != null) key.add("maxPrice=" + criteria.maxPrice().toPlainString());
+        key.add("sort=" + sort.name());
+        if (cursor != null && !cursor.isBlank()) key.add("cursor=" + encode(cursor));
+        return key.add("size=" + size).toString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static boolean ifNoneMatch(WebRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (header == null) return false;
+        ETag current = ETag.create(etag);
+        return ETag.parse(header).stream().anyMatch(t -> t.isWildcard() || t.compare(current, false));
+    }
+
+    // Live stock / price changes as Server-Sent Events; replaces polling for clients that keep a catalog copy
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(HttpServletRequest request) {
+        Principal user = request.getUserPrincipal();
+        return changeBroadcaster.subscribe(user != null ? user.getName() : null, request.getRemoteAddr());
+    }
+
+    // Whole-catalog feed: same filters as the list, unpaged, written row by row as NDJSON or CSV
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(name = "name", required = false) String name,
+                                                        @RequestParam(name = "category", required = false) String category,
+                                                        @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+                                                        @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+                                                        @RequestParam(name = "format", required = false) String format) {
+        SweetSearchCriteria criteria = new SweetSearchCriteria(name, category, minPrice, maxPrice);
+        SweetExportFormat exportFormat = SweetExportFormat.from(format);
+        StreamingResponseBody body = out -> {
+            try (SweetExportWriter writer = SweetExportWriter.open(exportFormat, out, objectMapper)) {
+                sweetService.export(criteria, row -> {
+                    try {
+                        writer.write(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sweets." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
+    // Bulk create from an NDJSON or CSV body (same shapes as the export), read as it streams in; admin only,
+    // checked here so a non-admin's body is never opened
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public SweetImportResult importSweets(@RequestParam(name = "format", required = false) String format,
+                                          InputStream body) throws IOException {
+        try (SweetImportReader reader = new SweetImportReader(body, SweetExportFormat.from(format), objectMapper)) {
+            return sweetBulkService.importSweets(reader);
+        }
     }
 
     @PostMapping
@@ -68,7 +209,19 @@ public class SweetController {
     @PostMapping("/{id}/purchase")
     public SweetResponse purchase(@PathVariable Long id,
                                   @RequestParam @Positive(message = "quantity must be > 0") int quantity) {
-        return sweetService.purchase(id, quantity);
+        return purchaseCombiner.purchase(id, quantity);
+    }
+
+    @PostMapping("/checkout")
+    public List<SweetResponse> checkout(@Valid @RequestBody CheckoutRequest request) {
+        return sweetService.checkout(request.lines());
+    }
+
+    // Many restock / price rows in one call: batched guarded UPDATEs, per-row outcomes
+    @PostMapping("/restock")
+    @PreAuthorize("hasRole('ADMIN')")
+    public StockUpdateResult bulkRestock(@Valid @RequestBody StockUpdateRequest request) {
+        return sweetBulkService.updateStock(request.rows());
     }
 
     @PostMapping("/{id}/restock")
@@ -79,7 +232,14 @@ public class SweetController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<SweetResponse> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(sweetService.getById(id));
+    public ResponseEntity<SweetResponse> getById(@PathVariable Long id, WebRequest request) {
+        // Tag and body come from the same read, so a cached body is never served under a newer row's tag
+        SweetResponse sweet = sweetService.getById(id);
+        Instant lastModified = sweet.updatedAt() != null ? sweet.updatedAt() : sweet.createdAt();
+        String etag = weakEtag(id + "-" + lastModified.getEpochSecond() + "." + lastModified.getNano());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(sweet);
     }
 }
@@ -0,0 +1,64 @@
+package com.example.sweet_shop.controller;
+
+import com.example.sweet_shop.bulk.UserImportReader;
+import com.example.sweet_shop.dto.UserImportRowResult;
+import com.example.sweet_shop.service.UserBulkService;
+import com.example.sweet_shop.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/api/admin/users")
+public class UserAdminController {
+
+    private final UserBulkService userBulkService;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    public UserAdminController(UserBulkService userBulkService, UserService userService, ObjectMapper objectMapper) {
+        this.userBulkService = userBulkService;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+    }
+
+    // Signs a user out everywhere (lost device, compromised account): every token issued so far stops working
+    @PostMapping("/{username}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> revokeTokens(@PathVariable String username) {
+        userService.revokeTokens(username);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Bulk registration from an NDJSON body; one NDJSON result line per input line, flushed chunk by chunk
+    @PostMapping(value = "/import", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> importUsers(InputStream body) {
+        StreamingResponseBody out = stream -> {
+            try (UserImportReader reader = new UserImportReader(body, objectMapper);
+                 SequenceWriter writer = objectMapper.writerFor(UserImportRowResult.class)
+                         .withRootValueSeparator("\n").writeValues(stream)) {
+                userBulkService.provision(reader, results -> {
+                    try {
+                        writer.writeAll(results);
+                        writer.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(out);
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.sweet_shop.domain;
 
+import com.example.sweet_shop.cache.CacheRegions;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 @Entity
 @Table(name = "roles")
+// Reference data seeded by migrations and never updated
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CacheRegions.ROLES)
 @Getter
 @Setter
 @NoArgsConstructor
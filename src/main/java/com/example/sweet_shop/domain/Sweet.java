@@ -1,20 +1,31 @@
 package com.example.sweet_shop.domain;
 
+import com.example.sweet_shop.cache.CacheRegions;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
 @Table(name = "sweets")
+// Bulk JPQL updates clear the whole region; plain-SQL writers must evict what they touch (see SweetBulkService)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.SWEETS)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Sweet {
+    public static final int ID_BLOCK_SIZE = 50;
+
+    // Block-allocated from id_generators (pooled-lo) so inserts can be JDBC-batched; every insert must go through it
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "sweet_ids")
+    @TableGenerator(name = "sweet_ids", table = "id_generators", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "sweets", allocationSize = Sweet.ID_BLOCK_SIZE)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 100)
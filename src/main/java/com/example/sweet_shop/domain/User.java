@@ -1,7 +1,10 @@
 package com.example.sweet_shop.domain;
 
+import com.example.sweet_shop.cache.CacheRegions;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
@@ -30,10 +33,17 @@ public class User {
     @Builder.Default
     private boolean enabled = true;
 
+    // Incremented on role or status changes so tokens issued earlier stop being accepted
+    @Column(name = "security_version", nullable = false)
+    @Builder.Default
+    private int securityVersion = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
+    // Cached as role ids per user; the roles themselves come from the read-only role region
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USER_ROLES)
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
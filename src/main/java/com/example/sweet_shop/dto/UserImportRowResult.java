@@ -0,0 +1,31 @@
+package com.example.sweet_shop.dto;
+
+/**
+ * Outcome of one line of a bulk user import. {@code line} is the 1-based line in the uploaded body.
+ * A {@code TRUNCATED} result is the last one of an import that hit the row cap; it names the first line not read.
+ */
+public record UserImportRowResult(int line, String username, Status status, Long id, String message) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        TRUNCATED
+    }
+
+    public static UserImportRowResult created(int line, String username, Long id) {
+        return new UserImportRowResult(line, username, Status.CREATED, id, null);
+    }
+
+    public static UserImportRowResult duplicate(int line, String username, String message) {
+        return new UserImportRowResult(line, username, Status.DUPLICATE, null, message);
+    }
+
+    public static UserImportRowResult invalid(int line, String username, String message) {
+        return new UserImportRowResult(line, username, Status.INVALID, null, message);
+    }
+
+    public static UserImportRowResult truncated(int line, String message) {
+        return new UserImportRowResult(line, null, Status.TRUNCATED, null, message);
+    }
+}
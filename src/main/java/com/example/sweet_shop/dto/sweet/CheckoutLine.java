@@ -0,0 +1,9 @@
+package com.example.sweet_shop.dto.sweet;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record CheckoutLine(
+        @NotNull Long sweetId,
+        @NotNull @Positive Integer quantity
+) {}
@@ -0,0 +1,12 @@
+package com.example.sweet_shop.dto.sweet;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CheckoutRequest(
+        @NotEmpty @Size(max = 100) List<@Valid @NotNull CheckoutLine> lines
+) {}
@@ -0,0 +1,20 @@
+package com.example.sweet_shop.dto.sweet;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a bulk stock update: add {@code quantityDelta} (may be negative) and, when given,
+ * set a new price. Bounds follow the columns: price is DECIMAL(10,2), and the delta is capped so
+ * a single row cannot push an INT quantity out of range from any sensible stock level.
+ */
+public record StockUpdateLine(
+        @NotNull Long sweetId,
+        @NotNull @Min(-1_000_000) @Max(1_000_000) Integer quantityDelta,
+        @DecimalMin(value = "0.00") @Digits(integer = 8, fraction = 2) BigDecimal price
+) {}
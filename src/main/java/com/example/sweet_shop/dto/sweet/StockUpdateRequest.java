@@ -0,0 +1,11 @@
+package com.example.sweet_shop.dto.sweet;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record StockUpdateRequest(
+        @NotEmpty List<@Valid @NotNull StockUpdateLine> rows
+) {}
@@ -0,0 +1,11 @@
+package com.example.sweet_shop.dto.sweet;
+
+import java.util.List;
+
+public record StockUpdateResult(int applied, int failed, List<StockUpdateRowResult> rows) {
+
+    public static StockUpdateResult of(List<StockUpdateRowResult> rows) {
+        int applied = (int) rows.stream().filter(r -> r.status() == StockUpdateRowResult.Status.APPLIED).count();
+        return new StockUpdateResult(applied, rows.size() - applied, rows);
+    }
+}
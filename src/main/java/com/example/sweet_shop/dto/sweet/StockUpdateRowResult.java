@@ -0,0 +1,20 @@
+package com.example.sweet_shop.dto.sweet;
+
+/**
+ * Outcome of one bulk stock update row; {@code index} is its 0-based position in the request,
+ * {@code sweet} the state after the update (null unless applied) and {@code message} why a
+ * {@code FAILED} row was rejected by the database.
+ */
+public record StockUpdateRowResult(int index, Long sweetId, Status status, SweetResponse sweet, String message) {
+
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK,
+        FAILED
+    }
+
+    public static StockUpdateRowResult failed(int index, Long sweetId, String message) {
+        return new StockUpdateRowResult(index, sweetId, Status.FAILED, null, message);
+    }
+}
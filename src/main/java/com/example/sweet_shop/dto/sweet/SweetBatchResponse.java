@@ -0,0 +1,8 @@
+package com.example.sweet_shop.dto.sweet;
+
+import java.util.List;
+
+/**
+ * Result of a multi-get: found sweets in request order, plus the requested ids that do not exist.
+ */
+public record SweetBatchResponse(List<SweetResponse> items, List<Long> missing) {}
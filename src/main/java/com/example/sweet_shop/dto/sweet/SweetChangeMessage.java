@@ -0,0 +1,9 @@
+package com.example.sweet_shop.dto.sweet;
+
+import java.math.BigDecimal;
+
+/**
+ * Compact change pushed to stream subscribers. {@code version} is the catalog version after the change;
+ * quantity and price are null for {@code DELETED}.
+ */
+public record SweetChangeMessage(String type, Long id, Integer quantity, BigDecimal price, long version) {}
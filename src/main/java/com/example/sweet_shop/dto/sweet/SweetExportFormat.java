@@ -0,0 +1,36 @@
+package com.example.sweet_shop.dto.sweet;
+
+import java.util.Locale;
+
+/**
+ * Wire formats of the catalog export: one JSON object per line, or CSV with a header row.
+ */
+public enum SweetExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    SweetExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static SweetExportFormat from(String value) {
+        if (value == null || value.isBlank()) return NDJSON;
+        try {
+            return SweetExportFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unsupported format: " + value);
+        }
+    }
+}
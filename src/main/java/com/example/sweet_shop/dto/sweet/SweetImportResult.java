@@ -0,0 +1,24 @@
+package com.example.sweet_shop.dto.sweet;
+
+import java.util.List;
+
+/**
+ * Outcome of a sweet import. {@code truncated} is set when the body had more than {@code max-rows} rows: the rows
+ * up to the cap were imported and are reported, the rest were not read.
+ */
+public record SweetImportResult(int created, int duplicates, int invalid, boolean truncated, List<SweetImportRowResult> rows) {
+
+    public static SweetImportResult of(List<SweetImportRowResult> rows, boolean truncated) {
+        int created = 0;
+        int duplicates = 0;
+        int invalid = 0;
+        for (SweetImportRowResult r : rows) {
+            switch (r.status()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+            }
+        }
+        return new SweetImportResult(created, duplicates, invalid, truncated, rows);
+    }
+}
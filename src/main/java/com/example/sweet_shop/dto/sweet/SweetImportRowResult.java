@@ -0,0 +1,25 @@
+package com.example.sweet_shop.dto.sweet;
+
+/**
+ * Outcome of one input row of a bulk import. {@code line} is the 1-based line in the uploaded body.
+ */
+public record SweetImportRowResult(int line, String name, Status status, Long id, String message) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    public static SweetImportRowResult created(int line, String name, Long id) {
+        return new SweetImportRowResult(line, name, Status.CREATED, id, null);
+    }
+
+    public static SweetImportRowResult duplicate(int line, String name, String message) {
+        return new SweetImportRowResult(line, name, Status.DUPLICATE, null, message);
+    }
+
+    public static SweetImportRowResult invalid(int line, String name, String message) {
+        return new SweetImportRowResult(line, name, Status.INVALID, null, message);
+    }
+}
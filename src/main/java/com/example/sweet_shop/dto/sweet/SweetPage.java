@@ -0,0 +1,14 @@
+package com.example.sweet_shop.dto.sweet;
+
+import java.util.List;
+
+/**
+ * One keyset page. {@code fromReplica} marks a page read from a replica, which may lag behind the catalog
+ * version the caller saw; such a page is neither cached nor tagged.
+ */
+public record SweetPage(List<SweetResponse> items, String nextCursor, boolean fromReplica) {
+
+    public SweetPage(List<SweetResponse> items, String nextCursor) {
+        this(items, nextCursor, false);
+    }
+}
@@ -1,5 +1,19 @@
 package com.example.sweet_shop.dto.sweet;
 
 import java.math.BigDecimal;
+import java.util.Locale;
 
-public record SweetSearchCriteria(String name, String category, BigDecimal minPrice, BigDecimal maxPrice) {}
+public record SweetSearchCriteria(String name, String category, BigDecimal minPrice, BigDecimal maxPrice) {
+
+    /**
+     * Canonical form used both for querying and as a cache key: blanks become null, text is trimmed,
+     * the (case-insensitive) name and category are lower-cased and prices drop trailing zeros so 10 and 10.00 match.
+     */
+    public SweetSearchCriteria normalized() {
+        return new SweetSearchCriteria(
+                name == null || name.isBlank() ? null : name.trim().toLowerCase(Locale.ROOT),
+                category == null || category.isBlank() ? null : category.trim().toLowerCase(Locale.ROOT),
+                minPrice == null ? null : minPrice.stripTrailingZeros(),
+                maxPrice == null ? null : maxPrice.stripTrailingZeros());
+    }
+}
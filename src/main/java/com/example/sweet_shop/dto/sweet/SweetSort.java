@@ -0,0 +1,22 @@
+package com.example.sweet_shop.dto.sweet;
+
+import java.util.Locale;
+
+/**
+ * Sort keys supported by the paged catalog listing. Every key is paired with {@code id}
+ * as a tie-breaker so that keyset continuation is stable.
+ */
+public enum SweetSort {
+    ID,
+    NAME,
+    PRICE;
+
+    public static SweetSort from(String value) {
+        if (value == null || value.isBlank()) return ID;
+        try {
+            return SweetSort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unsupported sort: " + value);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.sweet_shop.error;
+
+/**
+ * Raised when a purchase asks for more units than are in stock. Extends
+ * {@link IllegalArgumentException} so it keeps mapping to the {@code illegal_argument} error code.
+ */
+public class InsufficientStockException extends IllegalArgumentException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
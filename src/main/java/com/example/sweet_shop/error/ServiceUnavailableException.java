@@ -0,0 +1,7 @@
+package com.example.sweet_shop.error;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.sweet_shop.export;
+
+import com.example.sweet_shop.dto.sweet.SweetExportFormat;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Writes export rows one at a time to an output stream. Nothing is buffered beyond the underlying
+ * stream's buffer, so memory use does not depend on how many rows are written.
+ */
+public abstract class SweetExportWriter implements Closeable {
+
+    public static SweetExportWriter open(SweetExportFormat format, OutputStream out, ObjectMapper mapper) throws IOException {
+        return switch (format) {
+            case NDJSON -> new Ndjson(out, mapper);
+            case CSV -> new Csv(out);
+        };
+    }
+
+    public abstract void write(SweetResponse row) throws IOException;
+
+    private static final class Ndjson extends SweetExportWriter {
+        private final SequenceWriter writer;
+
+        Ndjson(OutputStream out, ObjectMapper mapper) throws IOException {
+            this.writer = mapper.writerFor(SweetResponse.class).withRootValueSeparator("\n").writeValues(out);
+        }
+
+        @Override
+        public void write(SweetResponse row) throws IOException {
+            writer.write(row);
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+            writer.close();
+        }
+    }
+
+    private static final class Csv extends SweetExportWriter {
+        private final Writer writer;
+
+        Csv(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("id,name,category,price,quantity,createdAt,updatedAt\n");
+        }
+
+        @Override
+        public void write(SweetResponse row) throws IOException {
+            writer.write(String.valueOf(row.id()));
+            writer.write(',');
+            writer.write(quote(row.name()));
+            writer.write(',');
+            writer.write(quote(row.category()));
+            writer.write(',');
+            writer.write(row.price().toPlainString());
+            writer.write(',');
+            writer.write(String.valueOf(row.quantity()));
+            writer.write(',');
+            writer.write(instant(row.createdAt()));
+            writer.write(',');
+            writer.write(instant(row.updatedAt()));
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        // RFC 4180: quote fields containing separators, quotes or line breaks; double embedded quotes
+        private static String quote(String value) {
+            if (value == null) return "";
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        private static String instant(Instant value) {
+            return value == null ? "" : value.toString();
+        }
+    }
+}
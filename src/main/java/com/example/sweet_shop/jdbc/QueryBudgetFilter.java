@@ -0,0 +1,80 @@
+package com.example.sweet_shop.jdbc;
+
+import com.example.sweet_shop.config.SqlInspectionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link SqlStatementCounter} scope around each request, ahead of the security filters so the user
+ * lookup is included. Statements and rows are recorded as {@code sql.request.statements} / {@code sql.request.rows}
+ * per route, and a request over either budget is logged and counted as {@code sql.request.over.budget}.
+ * The finished scope is left on the request under {@link #COUNTS_ATTRIBUTE} for tests to assert on.
+ * Work done after an async hand-off (streamed exports, SSE) runs on other threads and is not counted.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String COUNTS_ATTRIBUTE = QueryBudgetFilter.class.getName() + ".COUNTS";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final SqlInspectionProperties props;
+    private final MeterRegistry registry;
+
+    public QueryBudgetFilter(SqlInspectionProperties props, MeterRegistry registry) {
+        this.props = props;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            record(request, scope);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        request.setAttribute(COUNTS_ATTRIBUTE, scope);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("sql.request.statements")
+                .tag("method", request.getMethod()).tag("uri", uri)
+                .register(registry).record(scope.statements());
+        DistributionSummary.builder("sql.request.rows")
+                .tag("method", request.getMethod()).tag("uri", uri)
+                .register(registry).record(scope.rows());
+        boolean overStatements = scope.statements() > props.getStatementBudget();
+        boolean overRows = scope.rows() > props.getRowBudget();
+        if (overStatements) overBudget(request, uri, "statements");
+        if (overRows) overBudget(request, uri, "rows");
+        if (overStatements || overRows) {
+            log.warn("{} {} ran {} (budget {} statements, {} rows)", request.getMethod(), uri, scope,
+                    props.getStatementBudget(), props.getRowBudget());
+        }
+    }
+
+    private void overBudget(HttpServletRequest request, String uri, String limit) {
+        Counter.builder("sql.request.over.budget")
+                .tag("method", request.getMethod()).tag("uri", uri).tag("limit", limit)
+                .register(registry).increment();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.sweet_shop.jdbc;
+
+/**
+ * Thread-bound tally of SQL statements and result-set rows, fed by {@link StatementCountingDataSource}.
+ * Work is only counted while a scope is open on the executing thread; nested scopes also count towards
+ * their parents. Typical use is one scope per HTTP request ({@link QueryBudgetFilter}) or, in tests,
+ * around a single service call.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void statement() {
+        for (Scope s = CURRENT.get(); s != null; s = s.parent) s.statements++;
+    }
+
+    static void row() {
+        for (Scope s = CURRENT.get(); s != null; s = s.parent) s.rows++;
+    }
+
+    /** Counts stay readable after {@link #close()}. Confined to the thread that opened it. */
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private long statements;
+        private long rows;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        /** Round trips: each execute call, with a JDBC batch counting once. */
+        public long statements() {
+            return statements;
+        }
+
+        /** Rows read from result sets. */
+        public long rows() {
+            return rows;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() != this) return;
+            if (parent == null) CURRENT.remove();
+            else CURRENT.set(parent);
+        }
+
+        @Override
+        public String toString() {
+            return statements + " statements, " + rows + " rows";
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.sweet_shop.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hands out connections whose statements report to {@link SqlStatementCounter}: every {@code execute*} call
+ * is one statement and every successful {@code ResultSet.next()} one row. Covers Hibernate, Spring Data,
+ * {@code JdbcTemplate} and Flyway alike, since they all go through the pool behind this wrapper.
+ * {@code unwrap} still reaches the pool, so Hikari metrics and health checks are unaffected.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection(), StatementCountingDataSource::onConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password), StatementCountingDataSource::onConnection);
+    }
+
+    private static Object onConnection(Method method, Object result) {
+        // createStatement / prepareStatement / prepareCall; the declared type picks the interface to proxy
+        if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+            return proxy(method.getReturnType(), statement, StatementCountingDataSource::onStatement);
+        }
+        return result;
+    }
+
+    private static Object onStatement(Method method, Object result) {
+        if (method.getName().startsWith("execute")) SqlStatementCounter.statement();
+        if (result instanceof ResultSet resultSet && method.getReturnType() == ResultSet.class) {
+            return proxy(ResultSet.class, resultSet, StatementCountingDataSource::onResultSet);
+        }
+        return result;
+    }
+
+    private static Object onResultSet(Method method, Object result) {
+        if (Boolean.TRUE.equals(result) && method.getName().equals("next")) SqlStatementCounter.row();
+        return result;
+    }
+
+    private interface AfterCall {
+        Object apply(Method method, Object result);
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, AfterCall afterCall) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            // Identity semantics, so drivers and Hibernate can keep statements in hash-based registries
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> {
+                try {
+                    yield afterCall.apply(method, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+}
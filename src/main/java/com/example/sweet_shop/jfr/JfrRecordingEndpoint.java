@@ -0,0 +1,133 @@
+package com.example.sweet_shop.jfr;
+
+import com.example.sweet_shop.config.JfrRecordingProperties;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * On-demand Flight Recorder session, admin-only like the rest of {@code /actuator}:
+ * {@code POST /actuator/jfr} starts one (optional {@code duration}, {@code settings}), {@code GET} reports on it,
+ * {@code DELETE} stops it and {@code GET /actuator/jfr/recording} downloads it, a snapshot if still running.
+ * Only one recording exists at a time; it is bounded by {@code app.jfr.max-duration} and {@code app.jfr.max-size}.
+ * Open the file in JDK Mission Control; the application's own events are under "Sweet Shop".
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private final JfrRecordingProperties props;
+    private Recording recording;
+    private Path lastDump;
+
+    public JfrRecordingEndpoint(JfrRecordingProperties props) {
+        this.props = props;
+    }
+
+    @ReadOperation
+    public synchronized RecordingStatus status() {
+        return RecordingStatus.of(recording);
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<RecordingStatus> start(@Nullable Duration duration, @Nullable String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(RecordingStatus.of(recording), HttpStatus.CONFLICT.value());
+        }
+        Duration length = duration == null ? props.getDefaultDuration() : duration;
+        if (length.isNegative() || length.isZero() || length.compareTo(props.getMaxDuration()) > 0) {
+            throw new InvalidEndpointRequestException("duration must be positive and at most " + props.getMaxDuration(),
+                    "Invalid duration");
+        }
+        Configuration configuration = configuration(settings == null ? props.getSettings() : settings);
+        close();
+        Recording fresh = new Recording(configuration);
+        fresh.setName("sweet-shop-on-demand");
+        fresh.setDuration(length);
+        fresh.setMaxSize(props.getMaxSize().toBytes());
+        fresh.setToDisk(true);
+        fresh.start();
+        recording = fresh;
+        return new WebEndpointResponse<>(RecordingStatus.of(recording));
+    }
+
+    @DeleteOperation
+    public synchronized RecordingStatus stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        return RecordingStatus.of(recording);
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> download(@Selector String name) {
+        if (!"recording".equals(name) || recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            deleteLastDump();
+            lastDump = Files.createTempFile("sweet-shop-", ".jfr");
+            recording.dump(lastDump);
+            return new WebEndpointResponse<>(new FileSystemResource(lastDump));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        deleteLastDump();
+    }
+
+    private void deleteLastDump() {
+        if (lastDump == null) return;
+        try {
+            Files.deleteIfExists(lastDump);
+        } catch (IOException ignored) {
+            // A temp file; the OS reclaims it eventually
+        }
+        lastDump = null;
+    }
+
+    private static Configuration configuration(String name) {
+        try {
+            return Configuration.getConfiguration(name);
+        } catch (IOException | ParseException e) {
+            throw new InvalidEndpointRequestException("unknown JFR settings '" + name + "'", "Invalid settings");
+        }
+    }
+
+    public record RecordingStatus(String state, Instant startedAt, Duration duration, long sizeBytes) {
+
+        static RecordingStatus of(Recording recording) {
+            if (recording == null) return new RecordingStatus("NONE", null, null, 0);
+            return new RecordingStatus(recording.getState().name(), recording.getStartTime(),
+                    recording.getDuration(), recording.getSize());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.sweet_shop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("sweetshop.JwtAuthentication")
+@Label("JWT Authentication")
+@Description("Token check in JwtAuthenticationFilter, up to handing the request on; excludes the rest of the chain")
+@Category({"Sweet Shop", "Security"})
+@StackTrace(false)
+public class JwtAuthenticationEvent extends Event {
+
+    @Label("Result")
+    @Description("none (no bearer token), invalid, rejected (stale security version or unknown user) or authenticated")
+    String result;
+
+    @Label("Claims Mode")
+    @Description("Roles taken from the token instead of loading the user")
+    boolean claimsMode;
+
+    public void finish(String result, boolean claimsMode) {
+        end();
+        if (shouldCommit()) {
+            this.result = result;
+            this.claimsMode = claimsMode;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.sweet_shop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("sweetshop.Login")
+@Label("Login")
+@Description("AuthService.login including the user lookup, the queued BCrypt check and token signing")
+@Category({"Sweet Shop", "Security"})
+@StackTrace(false)
+public class LoginEvent extends Event {
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Rehashed")
+    @Description("The stored hash was upgraded to the configured cost")
+    boolean rehashed;
+
+    public void finish(String outcome, boolean rehashed) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            this.rehashed = rehashed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.sweet_shop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("sweetshop.SweetPurchase")
+@Label("Sweet Purchase")
+@Description("SweetService.purchase, from the guarded stock update to the reloaded row, excluding the commit; "
+        + "a combined purchase spans its wait for the batch and the batch's commit")
+@Category({"Sweet Shop", "Service"})
+@StackTrace(false)
+public class SweetPurchaseEvent extends Event {
+
+    @Label("Sweet Id")
+    long sweetId;
+
+    @Label("Quantity")
+    int quantity;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Combined")
+    @Description("True when the purchase went through PurchaseCombiner's batched decrement")
+    boolean combined;
+
+    public void finish(Long sweetId, int quantity, String outcome) {
+        finish(sweetId, quantity, outcome, false);
+    }
+
+    /** Fields are only filled in when a recording wants the event; with none running this is close to free. */
+    public void finish(Long sweetId, int quantity, String outcome, boolean combined) {
+        end();
+        if (shouldCommit()) {
+            this.sweetId = sweetId == null ? -1 : sweetId;
+            this.quantity = quantity;
+            this.outcome = outcome;
+            this.combined = combined;
+            commit();
+        }
+    }
+}
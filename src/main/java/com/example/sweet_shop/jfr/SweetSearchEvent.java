@@ -0,0 +1,64 @@
+package com.example.sweet_shop.jfr;
+
+import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.StringJoiner;
+
+@Name("sweetshop.SweetSearch")
+@Label("Sweet Search")
+@Description("A catalog search or list page and where its rows came from")
+@Category({"Sweet Shop", "Service"})
+@StackTrace(false)
+public class SweetSearchEvent extends Event {
+
+    @Label("Criteria")
+    @Description("Filters present, e.g. name+category; the values themselves are not recorded")
+    String criteria;
+
+    @Label("Sort")
+    String sort;
+
+    @Label("Page Size")
+    @Description("Requested page size, or -1 for an unpaged search")
+    int pageSize;
+
+    @Label("Continued")
+    @Description("True when the request carried a cursor")
+    boolean continued;
+
+    @Label("Source")
+    @Description("cache, engine (in-memory filter), database (primary) or replica")
+    String source;
+
+    @Label("Rows")
+    int rows;
+
+    public void finish(SweetSearchCriteria criteria, String sort, int pageSize, boolean continued, String source, int rows) {
+        end();
+        if (shouldCommit()) {
+            this.criteria = shapeOf(criteria);
+            this.sort = sort;
+            this.pageSize = pageSize;
+            this.continued = continued;
+            this.source = source;
+            this.rows = rows;
+            commit();
+        }
+    }
+
+    static String shapeOf(SweetSearchCriteria criteria) {
+        SweetSearchCriteria c = criteria.normalized();
+        StringJoiner shape = new StringJoiner("+");
+        if (c.name() != null) shape.add("name");
+        if (c.category() != null) shape.add("category");
+        if (c.minPrice() != null) shape.add("minPrice");
+        if (c.maxPrice() != null) shape.add("maxPrice");
+        return shape.length() == 0 ? "all" : shape.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.sweet_shop.metrics;
+
+import com.example.sweet_shop.error.ConflictException;
+import com.example.sweet_shop.error.InsufficientStockException;
+import com.example.sweet_shop.error.NotFoundException;
+import com.example.sweet_shop.error.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+/**
+ * Times every public {@code SweetService} and {@code AuthService} call as {@code sweets.service} / {@code auth.service},
+ * tagged with the method and an outcome matching the error the call maps to in {@code GlobalExceptionHandler}.
+ * Runs outside the transaction advice, so the time includes the commit and a failed commit counts against the call.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    private final MeterRegistry registry;
+
+    public ServiceMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.example.sweet_shop.service.SweetService.*(..))")
+    public Object timeSweetService(ProceedingJoinPoint call) throws Throwable {
+        return time("sweets.service", call);
+    }
+
+    @Around("execution(public * com.example.sweet_shop.service.AuthService.*(..))")
+    public Object timeAuthService(ProceedingJoinPoint call) throws Throwable {
+        return time("auth.service", call);
+    }
+
+    private Object time(String name, ProceedingJoinPoint call) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "ok";
+        try {
+            return call.proceed();
+        } catch (Throwable t) {
+            outcome = outcome(t);
+            throw t;
+        } finally {
+            // Builder lookups hit the registry's id map; the set of method/outcome pairs is small and fixed
+            sample.stop(Timer.builder(name)
+                    .tag("method", call.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    public static String outcome(Throwable t) {
+        if (t instanceof NotFoundException) return "not_found";
+        // Before IllegalArgumentException, which it extends
+        if (t instanceof InsufficientStockException) return "insufficient_stock";
+        if (t instanceof ConflictException) return "conflict";
+        if (t instanceof IllegalArgumentException) return "invalid";
+        if (t instanceof AccessDeniedException) return "forbidden";
+        if (t instanceof ServiceUnavailableException || t instanceof CannotCreateTransactionException
+                || t instanceof DataAccessResourceFailureException) return "unavailable";
+        return "error";
+    }
+}
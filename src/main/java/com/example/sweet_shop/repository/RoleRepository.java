@@ -1,11 +1,20 @@
 package com.example.sweet_shop.repository;
 
+import com.example.sweet_shop.cache.CacheRegions;
 import com.example.sweet_shop.domain.Role;
 import com.example.sweet_shop.domain.RoleName;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    // Runs on every registration; served from the query cache, with the role itself from its entity region
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.ROLE_BY_NAME)
+    })
     Optional<Role> findByName(RoleName name);
 }
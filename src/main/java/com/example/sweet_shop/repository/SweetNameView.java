@@ -0,0 +1,6 @@
+package com.example.sweet_shop.repository;
+
+public interface SweetNameView {
+    Long getId();
+    String getName();
+}
@@ -0,0 +1,28 @@
+package com.example.sweet_shop.repository;
+
+import com.example.sweet_shop.domain.Sweet;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Criteria queries that select straight into {@link SweetResponse} instead of managed entities,
+ * so reads pay for no entity snapshots or dirty checking and never grow the persistence context.
+ */
+public interface SweetProjectionRepository {
+
+    /**
+     * Sweets matching {@code spec} (all when null) in {@code sort} order, at most {@code limit} rows
+     * (no limit when negative).
+     */
+    List<SweetResponse> findMatching(Specification<Sweet> spec, Sort sort, int limit);
+
+    /**
+     * Forward-only stream of every sweet matching {@code spec} (all when null) in id order, fetched
+     * {@code fetchSize} rows at a time. Must be consumed, and closed, inside a transaction.
+     */
+    Stream<SweetResponse> streamMatching(Specification<Sweet> spec, int fetchSize);
+}
@@ -0,0 +1,60 @@
+package com.example.sweet_shop.repository;
+
+import com.example.sweet_shop.domain.Sweet;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class SweetProjectionRepositoryImpl implements SweetProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    SweetProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<SweetResponse> findMatching(Specification<Sweet> spec, Sort sort, int limit) {
+        TypedQuery<SweetResponse> query = query(spec, sort).setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (limit >= 0) query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    public Stream<SweetResponse> streamMatching(Specification<Sweet> spec, int fetchSize) {
+        return query(spec, Sort.by("id"))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<SweetResponse> query(Specification<Sweet> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SweetResponse> query = cb.createQuery(SweetResponse.class);
+        Root<Sweet> root = query.from(Sweet.class);
+        query.select(cb.construct(SweetResponse.class, root.get("id"), root.get("name"), root.get("category"),
+                root.get("price"), root.get("quantity"), root.get("createdAt"), root.get("updatedAt")));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) query.where(predicate);
+        }
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order o : sort) {
+            orders.add(o.isAscending() ? cb.asc(root.get(o.getProperty())) : cb.desc(root.get(o.getProperty())));
+        }
+        query.orderBy(orders);
+        return entityManager.createQuery(query);
+    }
+}
@@ -1,12 +1,52 @@
 package com.example.sweet_shop.repository;
 
 import com.example.sweet_shop.domain.Sweet;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface SweetRepository extends JpaRepository<Sweet, Long>, JpaSpecificationExecutor<Sweet> {
+public interface SweetRepository extends JpaRepository<Sweet, Long>, JpaSpecificationExecutor<Sweet>, SweetProjectionRepository {
     Optional<Sweet> findByName(String name);
     boolean existsByName(String name);
+
+    // Guarded decrement: the row is only touched when enough stock remains, so 0 rows means "not found or short"
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Sweet s set s.quantity = s.quantity - :quantity, s.updatedAt = :now " +
+            "where s.id = :id and s.quantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") Instant now);
+
+    // A query always reads the row, where findById may answer from the second-level cache. For re-reads after a
+    // bulk update in the same transaction (the cache is only cleared at commit) and for read-modify-write
+    @Query("select s from Sweet s where s.id = :id")
+    Optional<Sweet> findCurrentById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Sweet s where s.id = :id")
+    Optional<Sweet> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select s.id as id, s.name as name from Sweet s")
+    Stream<SweetNameView> streamNames();
+
+    @Query("select new com.example.sweet_shop.dto.sweet.SweetResponse(s.id, s.name, s.category, s.price, s.quantity, s.createdAt, s.updatedAt) " +
+            "from Sweet s order by s.id")
+    Stream<SweetResponse> streamResponses();
+
+    @Query("select s.name from Sweet s where s.name in :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+
+    @Query("select new com.example.sweet_shop.dto.sweet.SweetResponse(s.id, s.name, s.category, s.price, s.quantity, s.createdAt, s.updatedAt) " +
+            "from Sweet s where s.id in :ids")
+    List<SweetResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
 }
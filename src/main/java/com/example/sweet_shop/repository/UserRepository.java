@@ -1,12 +1,40 @@
 package com.example.sweet_shop.repository;
 
 import com.example.sweet_shop.domain.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Roles are EAGER; the graph joins them into the user select instead of a second query per lookup
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    Optional<UserSecurityView> findSecurityViewByUsername(String username);
+
+    // Set-wise duplicate checks for bulk provisioning: one query each instead of one per user
+    @Query("select u.username from User u where u.username in :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.securityVersion = u.securityVersion + 1 where u.username = :username")
+    int incrementSecurityVersion(@Param("username") String username);
+
+    // Guarded by the old hash so a concurrent password change is never overwritten by a rehash
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.passwordHash = :newHash where u.id = :id and u.passwordHash = :oldHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
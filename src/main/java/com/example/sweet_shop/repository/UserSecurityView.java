@@ -0,0 +1,7 @@
+package com.example.sweet_shop.repository;
+
+// Projection of the columns needed to decide whether an issued token is still honoured
+public interface UserSecurityView {
+    int getSecurityVersion();
+    boolean isEnabled();
+}
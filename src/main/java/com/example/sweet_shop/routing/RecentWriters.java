@@ -0,0 +1,39 @@
+package com.example.sweet_shop.routing;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** When each user last committed a write, so their reads can stay on the primary until replicas have caught up. */
+class RecentWriters {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    private final long windowNanos;
+    private final ConcurrentHashMap<String, Long> lastWrite = new ConcurrentHashMap<>();
+
+    RecentWriters(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    void wrote(String username) {
+        // Crude bound as in UserSecurityVersionCache: entries only matter for a few seconds anyway
+        if (lastWrite.size() >= MAX_ENTRIES) {
+            lastWrite.clear();
+        }
+        lastWrite.put(username, System.nanoTime());
+    }
+
+    boolean wroteRecently(String username) {
+        Long at = lastWrite.get(username);
+        return at != null && System.nanoTime() - at < windowNanos;
+    }
+
+    // Null for anonymous callers and work off the request path (bulk jobs, heartbeats)
+    static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null || !auth.isAuthenticated() ? null : auth.getName();
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.sweet_shop.routing;
+
+import com.example.sweet_shop.config.ReadReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read/write split over one primary and weighted read replicas. {@link #dataSource()} is a
+ * {@link LazyConnectionDataSourceProxy}: a connection is only fetched at the first statement, by which time the
+ * transaction has marked it read-only or not, so {@code @Transactional(readOnly = true)} work reaches a replica and
+ * everything else the primary.
+ * <p>
+ * A read still goes to the primary when the current user committed a write within {@code sticky-window}
+ * (read-your-writes), or when no replica is within {@code max-lag}. Lag comes from a heartbeat row
+ * ({@code replication_heartbeat}) the primary rewrites every {@code heartbeat-interval}: a replica is as far
+ * behind as the heartbeat it can see. Replicas count as lagging until their first successful check.
+ */
+public class ReplicaRouter implements MeterBinder, AutoCloseable {
+
+    static final String PRIMARY = "primary";
+    // Transaction resource naming the replica the current transaction reads from
+    private static final Object REPLICA_READ = new Object();
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final RecentWriters recentWriters;
+    private final long maxLagMillis;
+    private final LazyConnectionDataSourceProxy dataSource;
+    private final ScheduledExecutorService heartbeat;
+    // Replicas within max-lag, replaced as a whole by each heartbeat round
+    private volatile List<Replica> eligible = List.of();
+    private long lastBeat;
+    private final LongAdder stickyReads = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+
+    public ReplicaRouter(HikariDataSource primary, ReadReplicaProperties props, MeterRegistry registry) {
+        this.primary = primary;
+        this.recentWriters = new RecentWriters(props.getStickyWindow());
+        this.maxLagMillis = props.getMaxLag().toMillis();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (ReadReplicaProperties.Replica config : props.getReplicas()) {
+            Replica replica = new Replica(config.getName(), config.getWeight(), pool(config, registry));
+            replicas.add(replica);
+            targets.put(replica.name, replica.pool);
+        }
+        ReadRouting reads = new ReadRouting();
+        reads.setTargetDataSources(targets);
+        reads.setDefaultTargetDataSource(primary);
+        reads.afterPropertiesSet();
+        this.dataSource = new LazyConnectionDataSourceProxy(new WriteTrackingDataSource(primary, recentWriters));
+        this.dataSource.setReadOnlyDataSource(reads);
+        long interval = props.getHeartbeatInterval().toMillis();
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-heartbeat").daemon().factory());
+        // First round after one interval: at construction Flyway has not created the heartbeat table yet
+        heartbeat.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Whether the current transaction reads from a replica. Rows loaded there may trail the primary, so they
+     * must not be put into caches shared with other users.
+     */
+    public static boolean readingFromReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_READ);
+    }
+
+    /** The application's DataSource. */
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    /**
+     * One heartbeat round: reads every replica's heartbeat, then writes a new one on the primary. A replica is
+     * behind by however much of the primary's heartbeat history it has not seen yet.
+     */
+    public synchronized void refresh() {
+        long now = System.currentTimeMillis();
+        List<Replica> fresh = new ArrayList<>();
+        for (Replica replica : replicas) {
+            boolean wasEligible = eligible.contains(replica);
+            try {
+                long seen = readBeat(replica.pool);
+                replica.lagMillis = Math.max(0, (lastBeat == 0 ? now : lastBeat) - seen);
+                if (replica.lagMillis <= maxLagMillis) fresh.add(replica);
+            } catch (SQLException e) {
+                replica.lagMillis = -1;
+                log.debug("Replica {} heartbeat failed: {}", replica.name, e.getMessage());
+            }
+            if (wasEligible != fresh.contains(replica)) {
+                log.info("Replica {} {} (lag {} ms)", replica.name, wasEligible ? "taken out of rotation" : "in rotation",
+                        replica.lagMillis);
+            }
+        }
+        eligible = List.copyOf(fresh);
+        try {
+            writeBeat(now);
+            lastBeat = now;
+        } catch (SQLException e) {
+            log.debug("Primary heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private long readBeat(DataSource pool) throws SQLException {
+        try (Connection c = pool.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT beat_millis FROM replication_heartbeat WHERE id = 1");
+             ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) throw new SQLException("no heartbeat row");
+            return rs.getLong(1);
+        }
+    }
+
+    private void writeBeat(long now) throws SQLException {
+        try (Connection c = primary.getConnection();
+             PreparedStatement ps = c.prepareStatement("UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1")) {
+            ps.setLong(1, now);
+            ps.executeUpdate();
+            if (!c.getAutoCommit()) c.commit();
+        }
+    }
+
+    private Object route() {
+        String user = RecentWriters.currentUser();
+        if (user != null && recentWriters.wroteRecently(user)) {
+            stickyReads.increment();
+            return PRIMARY;
+        }
+        List<Replica> candidates = eligible;
+        if (candidates.isEmpty()) {
+            fallbackReads.increment();
+            return PRIMARY;
+        }
+        Replica chosen = candidates.getFirst();
+        if (candidates.size() > 1) {
+            int total = candidates.stream().mapToInt(r -> r.weight).sum();
+            int ticket = ThreadLocalRandom.current().nextInt(total);
+            for (Replica r : candidates) {
+                ticket -= r.weight;
+                if (ticket < 0) {
+                    chosen = r;
+                    break;
+                }
+            }
+        }
+        chosen.reads.increment();
+        markReplicaRead(chosen.name);
+        return chosen.name;
+    }
+
+    private static void markReplicaRead(String replica) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(REPLICA_READ)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_READ, replica);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_READ);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("db.replica.lag", replica, r -> r.lagMillis < 0 ? Double.NaN : r.lagMillis / 1000.0)
+                    .tag("replica", replica.name).baseUnit("seconds").register(registry);
+            Gauge.builder("db.replica.eligible", replica, r -> eligible.contains(r) ? 1 : 0)
+                    .tag("replica", replica.name).register(registry);
+            FunctionCounter.builder("db.reads.routed", replica.reads, LongAdder::sum)
+                    .tags("target", replica.name, "reason", "replica").register(registry);
+        }
+        FunctionCounter.builder("db.reads.routed", stickyReads, LongAdder::sum)
+                .tags("target", PRIMARY, "reason", "read_your_writes").register(registry);
+        FunctionCounter.builder("db.reads.routed", fallbackReads, LongAdder::sum)
+                .tags("target", PRIMARY, "reason", "no_replica").register(registry);
+    }
+
+    @Override
+    public void close() {
+        heartbeat.shutdownNow();
+        replicas.forEach(r -> r.pool.close());
+        primary.close();
+    }
+
+    private static HikariDataSource pool(ReadReplicaProperties.Replica config, MeterRegistry registry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica-" + config.getName());
+        pool.setJdbcUrl(config.getUrl());
+        pool.setUsername(config.getUsername());
+        pool.setPassword(config.getPassword());
+        pool.setMaximumPoolSize(config.getMaximumPoolSize());
+        pool.setReadOnly(true);
+        // Same hikaricp.* meters as the primary, tagged pool=replica-<name>
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        return pool;
+    }
+
+    private final class ReadRouting extends AbstractRoutingDataSource {
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return route();
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final int weight;
+        final HikariDataSource pool;
+        final LongAdder reads = new LongAdder();
+        // -1 until the first successful check, or while unreachable
+        volatile long lagMillis = -1;
+
+        Replica(String name, int weight, HikariDataSource pool) {
+            this.name = name;
+            this.weight = weight;
+            this.pool = pool;
+        }
+    }
+}
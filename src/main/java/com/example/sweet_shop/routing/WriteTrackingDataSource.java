@@ -0,0 +1,58 @@
+package com.example.sweet_shop.routing;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The primary as seen by read-write transactions: when one commits, its user is recorded in {@link RecentWriters}.
+ * Connections are fetched lazily at the first statement, so transaction synchronization is already active here.
+ */
+class WriteTrackingDataSource extends DelegatingDataSource {
+
+    private final RecentWriters recentWriters;
+
+    WriteTrackingDataSource(DataSource primary, RecentWriters recentWriters) {
+        super(primary);
+        this.recentWriters = recentWriters;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        trackWriter();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        trackWriter();
+        return super.getConnection(username, password);
+    }
+
+    private void trackWriter() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                // Bound as a resource so a transaction touching several connections registers once
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        String user = RecentWriters.currentUser();
+        if (user == null) return;
+        TransactionSynchronizationManager.bindResource(this, user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.wrote(user);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WriteTrackingDataSource.this);
+            }
+        });
+    }
+}
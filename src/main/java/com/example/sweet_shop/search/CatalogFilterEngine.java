@@ -0,0 +1,413 @@
+package com.example.sweet_shop.search;
+
+import com.example.sweet_shop.config.CatalogSearchProperties;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Columnar in-memory copy of the catalog for the common search shapes. Rows live in dense slots kept in
+ * id order; each category has a {@link BitSet} of slots and prices are kept in cents, both per slot and
+ * as a sorted column for range lookups. A search intersects bitsets, walks the result from the cursor
+ * and hydrates responses straight from the columns, so no entity or SQL is involved.
+ * <p>
+ * Price changes since the last compaction are tracked in a dirty set and checked directly, so the
+ * sorted column only needs re-sorting once that set grows past the configured threshold. Rows whose id
+ * arrives below the current maximum (concurrent inserts committing out of order) are handled the same way:
+ * they sit in an out-of-order set, are sorted and merged into each result, and only a large set forces
+ * compaction. Categories match case-insensitively, as with MySQL's default collation.
+ * Other nodes' writes produce no events here, so {@link CatalogIndexRefresher} invalidates and rebuilds the
+ * engine when they are seen.
+ * The engine answers only id-ordered pages; other sorts (or a cold engine) return null and use SQL.
+ */
+@Component
+public class CatalogFilterEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogFilterEngine.class);
+
+    private final SweetRepository sweetRepository;
+    private final SweetNameIndex nameIndex;
+    private final CatalogSearchProperties props;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columns, indexed by slot
+    private int size;
+    private long[] ids = new long[0];
+    private String[] names = new String[0];
+    private int[] categories = new int[0];
+    // Category as written on the row; the code groups spellings that differ only in case
+    private String[] categoryLabels = new String[0];
+    private long[] priceCents = new long[0];
+    private int[] quantities = new int[0];
+    private long[] createdAt = new long[0];
+    private long[] updatedAt = new long[0];
+    private final BitSet live = new BitSet();
+    private final Map<Long, Integer> slotOf = new HashMap<>();
+    // Highest id up to each slot, non-decreasing, so cursors can binary-search past out-of-order slots
+    private long[] seekIds = new long[0];
+    // Slots whose id arrived below the maximum before them; kept out of the ordered walk until compaction
+    private final BitSet outOfOrder = new BitSet();
+
+    // Keyed by lower-cased category
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+    private final List<BitSet> categoryBits = new ArrayList<>();
+
+    private long[] sortedPrices = new long[0];
+    private int[] sortedSlots = new int[0];
+    private final BitSet priceDirty = new BitSet();
+
+    private List<SweetChangedEvent> pending;
+    private volatile boolean ready;
+    // Bumped by invalidate(); a rebuild that started under an older value does not bring the engine back
+    private long generation;
+
+    public CatalogFilterEngine(SweetRepository sweetRepository, SweetNameIndex nameIndex, CatalogSearchProperties props) {
+        this.sweetRepository = sweetRepository;
+        this.nameIndex = nameIndex;
+        this.props = props;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!props.isFilterEngineEnabled()) return;
+        long started;
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+            clear();
+            started = generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try (Stream<SweetResponse> rows = sweetRepository.streamResponses()) {
+            rows.forEach(r -> {
+                lock.writeLock().lock();
+                try {
+                    upsert(r);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        }
+        lock.writeLock().lock();
+        try {
+            pending.forEach(this::apply);
+            pending = null;
+            compact();
+            ready = generation == started;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Catalog filter engine built: {} sweets, {} categories", slotOf.size(), categoryBits.size());
+    }
+
+    @Order(CatalogVersion.INDEXES)
+    @TransactionalEventListener
+    public void onSweetChanged(SweetChangedEvent event) {
+        if (!props.isFilterEngineEnabled()) return;
+        lock.writeLock().lock();
+        try {
+            if (pending != null) pending.add(event);
+            apply(event);
+            if (priceDirty.cardinality() > props.getFilterEngineCompactThreshold()
+                    || outOfOrder.cardinality() > props.getFilterEngineCompactThreshold()
+                    || live.cardinality() < size / 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Stops answering until the next rebuild that starts after this call completes. */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Up to {@code max} matching sweets with id greater than {@code afterId}, in id order,
+     * or null when the engine cannot answer (disabled or cold).
+     */
+    public List<SweetResponse> find(SweetSearchCriteria c, Long afterId, int max) {
+        if (!ready || !props.isFilterEngineEnabled()) return null;
+        Set<Long> nameIds = null;
+        String needle = null;
+        if (c.name() != null && !c.name().isBlank()) {
+            nameIds = nameIndex.idsContaining(c.name());
+            if (nameIds == null) needle = c.name().toLowerCase(Locale.ROOT);
+        }
+        lock.readLock().lock();
+        try {
+            BitSet bits = (BitSet) live.clone();
+            if (c.category() != null && !c.category().isBlank()) {
+                Integer code = categoryCodes.get(c.category().toLowerCase(Locale.ROOT));
+                if (code == null) return List.of();
+                bits.and(categoryBits.get(code));
+            }
+            if (c.minPrice() != null || c.maxPrice() != null) {
+                long min = c.minPrice() == null ? Long.MIN_VALUE : toCents(c.minPrice(), RoundingMode.CEILING);
+                long max2 = c.maxPrice() == null ? Long.MAX_VALUE : toCents(c.maxPrice(), RoundingMode.FLOOR);
+                bits.and(priceRange(min, max2));
+            }
+            if (nameIds != null) {
+                BitSet named = new BitSet(size);
+                for (Long id : nameIds) {
+                    Integer slot = slotOf.get(id);
+                    if (slot != null) named.set(slot);
+                }
+                bits.and(named);
+            }
+            String match = needle;
+            BitSet stray = (BitSet) bits.clone();
+            stray.and(outOfOrder);
+            bits.andNot(outOfOrder);
+            int[] extra = stray.stream()
+                    .filter(s -> (afterId == null || ids[s] > afterId) && nameMatches(s, match))
+                    .boxed()
+                    .sorted(Comparator.comparingLong(s -> ids[s]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            List<SweetResponse> out = new ArrayList<>(Math.min(max, 256));
+            int slot = bits.nextSetBit(afterId == null ? 0 : firstSlotAfter(afterId));
+            int k = 0;
+            while (out.size() < max) {
+                while (slot >= 0 && !nameMatches(slot, needle)) slot = bits.nextSetBit(slot + 1);
+                if (k < extra.length && (slot < 0 || ids[extra[k]] < ids[slot])) {
+                    out.add(hydrate(extra[k++]));
+                } else if (slot >= 0) {
+                    out.add(hydrate(slot));
+                    slot = bits.nextSetBit(slot + 1);
+                } else {
+                    break;
+                }
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean nameMatches(int slot, String needle) {
+        return needle == null || names[slot].toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    private void apply(SweetChangedEvent event) {
+        if (event.type() == SweetChangedEvent.Type.DELETED) {
+            delete(event.id());
+        } else {
+            upsert(event.sweet());
+        }
+    }
+
+    private void upsert(SweetResponse r) {
+        Integer existing = slotOf.get(r.id());
+        int slot;
+        if (existing == null) {
+            slot = size++;
+            ensureCapacity(size);
+            long maxBefore = slot == 0 ? Long.MIN_VALUE : seekIds[slot - 1];
+            if (r.id() < maxBefore) {
+                outOfOrder.set(slot);
+                seekIds[slot] = maxBefore;
+            } else {
+                seekIds[slot] = r.id();
+            }
+            slotOf.put(r.id(), slot);
+            priceDirty.set(slot);
+        } else {
+            slot = existing;
+            categoryBits.get(categories[slot]).clear(slot);
+        }
+        long cents = toCents(r.price(), RoundingMode.HALF_UP);
+        if (existing != null && priceCents[slot] != cents) priceDirty.set(slot);
+        ids[slot] = r.id();
+        names[slot] = r.name();
+        categories[slot] = categoryCode(r.category());
+        categoryLabels[slot] = r.category();
+        categoryBits.get(categories[slot]).set(slot);
+        priceCents[slot] = cents;
+        quantities[slot] = r.quantity();
+        createdAt[slot] = toNanos(r.createdAt());
+        updatedAt[slot] = toNanos(r.updatedAt());
+        live.set(slot);
+    }
+
+    private void delete(Long id) {
+        Integer slot = slotOf.remove(id);
+        if (slot == null) return;
+        live.clear(slot);
+        categoryBits.get(categories[slot]).clear(slot);
+        names[slot] = null;
+        categoryLabels[slot] = null;
+    }
+
+    // Rewrites live rows into fresh id-ordered slots and re-sorts the price column
+    private void compact() {
+        int[] order = live.stream().boxed()
+                .sorted(Comparator.comparingLong(s -> ids[s]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        long[] nIds = new long[order.length];
+        String[] nNames = new String[order.length];
+        int[] nCategories = new int[order.length];
+        String[] nLabels = new String[order.length];
+        long[] nPrices = new long[order.length];
+        int[] nQuantities = new int[order.length];
+        long[] nCreated = new long[order.length];
+        long[] nUpdated = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            int s = order[i];
+            nIds[i] = ids[s];
+            nNames[i] = names[s];
+            nCategories[i] = categories[s];
+            nLabels[i] = categoryLabels[s];
+            nPrices[i] = priceCents[s];
+            nQuantities[i] = quantities[s];
+            nCreated[i] = createdAt[s];
+            nUpdated[i] = updatedAt[s];
+        }
+        ids = nIds;
+        names = nNames;
+        categories = nCategories;
+        categoryLabels = nLabels;
+        priceCents = nPrices;
+        quantities = nQuantities;
+        createdAt = nCreated;
+        updatedAt = nUpdated;
+        size = order.length;
+        seekIds = Arrays.copyOf(nIds, size);
+        outOfOrder.clear();
+        live.clear();
+        live.set(0, size);
+        slotOf.clear();
+        categoryBits.forEach(BitSet::clear);
+        for (int slot = 0; slot < size; slot++) {
+            slotOf.put(ids[slot], slot);
+            categoryBits.get(categories[slot]).set(slot);
+        }
+        Integer[] bySlotPrice = new Integer[size];
+        for (int i = 0; i < size; i++) bySlotPrice[i] = i;
+        Arrays.sort(bySlotPrice, Comparator.comparingLong(s -> priceCents[s]));
+        sortedSlots = new int[size];
+        sortedPrices = new long[size];
+        for (int i = 0; i < size; i++) {
+            sortedSlots[i] = bySlotPrice[i];
+            sortedPrices[i] = priceCents[bySlotPrice[i]];
+        }
+        priceDirty.clear();
+    }
+
+    private BitSet priceRange(long min, long max) {
+        BitSet bits = new BitSet(size);
+        for (int i = lowerBound(sortedPrices, min); i < sortedPrices.length && sortedPrices[i] <= max; i++) {
+            bits.set(sortedSlots[i]);
+        }
+        // Sorted entries of dirty slots may be stale: drop them and test the live value instead
+        bits.andNot(priceDirty);
+        for (int slot = priceDirty.nextSetBit(0); slot >= 0; slot = priceDirty.nextSetBit(slot + 1)) {
+            if (priceCents[slot] >= min && priceCents[slot] <= max) bits.set(slot);
+        }
+        return bits;
+    }
+
+    private int firstSlotAfter(long afterId) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (seekIds[mid] <= afterId) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int lowerBound(long[] a, long key) {
+        int lo = 0;
+        int hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private SweetResponse hydrate(int slot) {
+        return new SweetResponse(ids[slot], names[slot], categoryLabels[slot],
+                BigDecimal.valueOf(priceCents[slot], 2), quantities[slot],
+                fromNanos(createdAt[slot]), fromNanos(updatedAt[slot]));
+    }
+
+    private int categoryCode(String category) {
+        return categoryCodes.computeIfAbsent(category.toLowerCase(Locale.ROOT), k -> {
+            categoryBits.add(new BitSet());
+            return categoryBits.size() - 1;
+        });
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) return;
+        int n = Math.max(capacity, Math.max(16, ids.length * 2));
+        ids = Arrays.copyOf(ids, n);
+        names = Arrays.copyOf(names, n);
+        categories = Arrays.copyOf(categories, n);
+        categoryLabels = Arrays.copyOf(categoryLabels, n);
+        priceCents = Arrays.copyOf(priceCents, n);
+        quantities = Arrays.copyOf(quantities, n);
+        createdAt = Arrays.copyOf(createdAt, n);
+        updatedAt = Arrays.copyOf(updatedAt, n);
+        seekIds = Arrays.copyOf(seekIds, n);
+    }
+
+    private void clear() {
+        size = 0;
+        live.clear();
+        slotOf.clear();
+        categoryCodes.clear();
+        categoryBits.clear();
+        priceDirty.clear();
+        outOfOrder.clear();
+        sortedPrices = new long[0];
+        sortedSlots = new int[0];
+        ready = false;
+    }
+
+    private static long toCents(BigDecimal price, RoundingMode mode) {
+        return price.setScale(2, mode).unscaledValue().longValueExact();
+    }
+
+    private static final long NO_INSTANT = Long.MIN_VALUE;
+
+    private static long toNanos(Instant i) {
+        return i == null ? NO_INSTANT : i.getEpochSecond() * 1_000_000_000L + i.getNano();
+    }
+
+    private static Instant fromNanos(long n) {
+        return n == NO_INSTANT ? null : Instant.ofEpochSecond(Math.floorDiv(n, 1_000_000_000L), Math.floorMod(n, 1_000_000_000L));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.sweet_shop.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the in-memory indexes honest across nodes. They follow local commits through events, but another node's
+ * writes only show up as a {@link CatalogVersion.RemoteChange}: the indexes are then taken out of service at once
+ * (searches fall back to SQL) and rebuilt from the table on a background thread. Changes that arrive while a rebuild
+ * runs mark it stale and trigger one more.
+ */
+@Component
+public class CatalogIndexRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogIndexRefresher.class);
+
+    private final SweetNameIndex nameIndex;
+    private final CatalogFilterEngine filterEngine;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    public CatalogIndexRefresher(SweetNameIndex nameIndex, CatalogFilterEngine filterEngine) {
+        this.nameIndex = nameIndex;
+        this.filterEngine = filterEngine;
+    }
+
+    @EventListener
+    public void onRemoteChange(CatalogVersion.RemoteChange event) {
+        nameIndex.invalidate();
+        filterEngine.invalidate();
+        requested.set(true);
+        if (running.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("catalog-index-rebuild").start(this::rebuildWhileRequested);
+        }
+    }
+
+    private void rebuildWhileRequested() {
+        do {
+            try {
+                while (requested.getAndSet(false)) {
+                    nameIndex.rebuild();
+                    filterEngine.rebuild();
+                }
+            } catch (RuntimeException e) {
+                // Left out of service; the next remote change retries
+                log.warn("Catalog index rebuild failed: {}", e.getMessage());
+            } finally {
+                running.set(false);
+            }
+        } while (requested.get() && running.compareAndSet(false, true));
+    }
+}
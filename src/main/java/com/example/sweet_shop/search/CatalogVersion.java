@@ -0,0 +1,162 @@
+package com.example.sweet_shop.search;
+
+import com.example.sweet_shop.config.CatalogSearchProperties;
+import com.example.sweet_shop.service.SweetChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.TreeSet;
+
+/**
+ * Catalog version shared by every node through the {@code catalog_version} row. Each transaction that writes sweets
+ * bumps it once, just before committing; derived data (cached search pages, list ETags) is keyed by the version it
+ * was read under, so a bump invalidates all of it at once, on every node.
+ * <p>
+ * Reads are local: a node re-reads the row at most once per {@code version-check-interval}, so another node's write
+ * reaches its tags within that interval, while its own writes are adopted as soon as they commit. A locally bumped
+ * version only becomes current after the in-memory indexes have applied the same change ({@link #AFTER_INDEXES}).
+ * Another node's writes never reach those indexes as events, so when a re-read finds versions this node did not
+ * produce it publishes a {@link RemoteChange} first, and the indexes stop answering until they are rebuilt
+ * ({@link CatalogIndexRefresher}). Either way a page read under the new version can never come from a stale index.
+ */
+@Component
+public class CatalogVersion {
+
+    /** Listener order for in-memory indexes, which must apply a change before the version moves. */
+    public static final int INDEXES = 0;
+    public static final int AFTER_INDEXES = Ordered.LOWEST_PRECEDENCE - 100;
+    /** Listener order for anything that reports the version a change produced (e.g. change streams). */
+    public static final int AFTER_VERSION = Ordered.LOWEST_PRECEDENCE;
+
+    private static final String BUMP = "UPDATE catalog_version SET version = version + 1 WHERE id = 1";
+    private static final String READ = "SELECT version FROM catalog_version WHERE id = 1";
+
+    /** Published, before the version moves, when the row shows writes made by another node. */
+    public record RemoteChange(long version) {
+    }
+
+    // Transaction resource holding the version this transaction's bump produced
+    private final Object bumped = new Object();
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher events;
+    private final long checkIntervalNanos;
+    // Locally bumped versions whose changes are not yet applied in memory; current() stays below the lowest
+    private final TreeSet<Long> pending = new TreeSet<>();
+    // Committed or committing versions this node produced above accountedThrough; any other version there is remote
+    private final TreeSet<Long> local = new TreeSet<>();
+    // Every version up to here was either produced here or already reported as a remote change
+    private long accountedThrough = -1;
+    private long highest = -1;
+    private volatile long version = -1;
+    private volatile long checkedAt;
+
+    public CatalogVersion(JdbcTemplate jdbcTemplate, ApplicationEventPublisher events, CatalogSearchProperties props) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.events = events;
+        this.checkIntervalNanos = props.getVersionCheckInterval().toNanos();
+    }
+
+    public long current() {
+        if (version < 0 || System.nanoTime() - checkedAt >= checkIntervalNanos) {
+            refresh();
+        }
+        return version;
+    }
+
+    /** Opaque tag for the current version, the same on every node (used for list ETags). */
+    public String tag() {
+        return Long.toString(current());
+    }
+
+    /**
+     * The version the current transaction's write produced, once it has bumped; null before that or outside a
+     * transaction. Readable by after-commit listeners.
+     */
+    public Long produced() {
+        return (Long) TransactionSynchronizationManager.getResource(bumped);
+    }
+
+    // First at startup, so the indexes' initial snapshots are taken after the version they are accounted against
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        if (version >= 0 && System.nanoTime() - checkedAt < checkIntervalNanos) {
+            return;  // another caller just read it
+        }
+        Long value = jdbcTemplate.queryForObject(READ, Long.class);
+        long read = value == null ? 0 : value;
+        checkedAt = System.nanoTime();
+        if (read > accountedThrough) {
+            boolean remote = accountedThrough >= 0
+                    && local.subSet(accountedThrough, false, read, true).size() < read - accountedThrough;
+            accountedThrough = read;
+            local.headSet(read, true).clear();
+            if (remote) {
+                // Synchronous, so the indexes are out of service before a page can be tagged with this version
+                events.publishEvent(new RemoteChange(read));
+            }
+        }
+        advance(read);
+    }
+
+    // Last before commit, on the transaction's own connection: the row lock is held only across the commit
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void bump(SweetChangedEvent event) {
+        if (TransactionSynchronizationManager.hasResource(bumped)) return;
+        jdbcTemplate.update(BUMP);
+        Long produced = jdbcTemplate.queryForObject(READ, Long.class);
+        synchronized (this) {
+            pending.add(produced);
+            local.add(produced);
+        }
+        TransactionSynchronizationManager.bindResource(bumped, produced);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(bumped);
+                if (status != STATUS_COMMITTED) {
+                    // The number is handed out again by the next bump, possibly another node's
+                    synchronized (CatalogVersion.this) {
+                        local.remove(produced);
+                    }
+                }
+                // Normally already released by onSweetChanged; this covers rollbacks
+                release(produced);
+            }
+        });
+    }
+
+    @Order(AFTER_INDEXES)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSweetChanged(SweetChangedEvent event) {
+        Long produced = produced();
+        if (produced != null) {
+            release(produced);
+        } else {
+            checkedAt = System.nanoTime() - checkIntervalNanos;
+            refresh();
+        }
+    }
+
+    private synchronized void release(long produced) {
+        pending.remove(produced);
+        advance(produced);
+    }
+
+    private synchronized void advance(long seen) {
+        highest = Math.max(highest, seen);
+        long target = pending.isEmpty() ? highest : Math.min(highest, pending.first() - 1);
+        if (target > version) {
+            version = target;
+        }
+    }
+}
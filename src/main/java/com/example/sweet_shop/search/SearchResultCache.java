@@ -0,0 +1,62 @@
+package com.example.sweet_shop.search;
+
+import com.example.sweet_shop.cache.BoundedCache;
+import com.example.sweet_shop.config.CatalogSearchProperties;
+import com.example.sweet_shop.dto.sweet.SweetPage;
+import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import com.example.sweet_shop.dto.sweet.SweetSort;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU/TTL cache of search pages keyed by normalized criteria, sort, cursor, page size and the
+ * {@link CatalogVersion} the page was read under. Writes never touch the cache directly: a committed
+ * change bumps the version and older entries simply stop matching and age out.
+ * Hit, miss and eviction counts are published as {@code sweets.search.cache.*} meters.
+ */
+@Component
+public class SearchResultCache implements MeterBinder {
+
+    private final BoundedCache<Key, SweetPage> cache;
+    private final CatalogVersion catalogVersion;
+
+    public SearchResultCache(CatalogSearchProperties props, CatalogVersion catalogVersion) {
+        this.cache = new BoundedCache<>(props.getResultCacheSize(), props.getResultCacheTtl());
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * criteria must already be normalized; the version is read before loading so a racing write only ever makes the entry unreachable.
+     * Pages read from a replica are returned but not stored: the replica may not have caught up with that version yet.
+     */
+    public SweetPage get(SweetSearchCriteria criteria, SweetSort sort, String cursor, int size, Supplier<SweetPage> loader) {
+        Key key = new Key(criteria, sort, cursor, size, catalogVersion.current());
+        SweetPage page = cache.get(key);
+        if (page == null) {
+            page = loader.get();
+            if (!page.fromReplica()) {
+                cache.put(key, page);
+            }
+        }
+        return page;
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("sweets.search.cache.hits", cache, BoundedCache::hits).register(registry);
+        FunctionCounter.builder("sweets.search.cache.misses", cache, BoundedCache::misses).register(registry);
+        FunctionCounter.builder("sweets.search.cache.evictions", cache, BoundedCache::evictions).register(registry);
+        Gauge.builder("sweets.search.cache.size", cache, BoundedCache::size).register(registry);
+    }
+
+    private record Key(SweetSearchCriteria criteria, SweetSort sort, String cursor, int size, long version) {}
+}
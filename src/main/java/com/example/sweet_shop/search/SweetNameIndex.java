@@ -0,0 +1,184 @@
+package com.example.sweet_shop.search;
+
+import com.example.sweet_shop.config.CatalogSearchProperties;
+import com.example.sweet_shop.repository.SweetNameView;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram inverted index over sweet names, so {@code name contains x} can be answered with
+ * an id set instead of a {@code LIKE '%x%'} table scan. Built once the application is ready and kept
+ * current from committed {@link SweetChangedEvent}s. Until it is built, or for fragments shorter than
+ * a trigram, {@link #idsContaining} returns null and callers fall back to SQL. Other nodes' writes produce no
+ * events here, so {@link CatalogIndexRefresher} invalidates and rebuilds the index when they are seen.
+ */
+@Component
+public class SweetNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SweetNameIndex.class);
+    static final int GRAM = 3;
+
+    private final SweetRepository sweetRepository;
+    private final CatalogSearchProperties props;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Set<Long>> postings = new HashMap<>();
+    private Map<Long, String> names = new HashMap<>();
+    // Changes seen while a rebuild is reading the table, replayed on top of the fresh snapshot
+    private List<SweetChangedEvent> pending;
+    private volatile boolean ready;
+    // Bumped by invalidate(); a rebuild that started under an older value does not bring the index back
+    private long generation;
+
+    public SweetNameIndex(SweetRepository sweetRepository, CatalogSearchProperties props) {
+        this.sweetRepository = sweetRepository;
+        this.props = props;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!props.isNameIndexEnabled()) return;
+        long started;
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+            started = generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<String, Set<Long>> freshPostings = new HashMap<>();
+        Map<Long, String> freshNames = new HashMap<>();
+        try (Stream<SweetNameView> rows = sweetRepository.streamNames()) {
+            rows.forEach(r -> add(freshPostings, freshNames, r.getId(), r.getName()));
+        }
+        lock.writeLock().lock();
+        try {
+            postings = freshPostings;
+            names = freshNames;
+            pending.forEach(this::apply);
+            pending = null;
+            ready = generation == started;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Sweet name index built: {} names, {} trigrams", freshNames.size(), freshPostings.size());
+    }
+
+    @Order(CatalogVersion.INDEXES)
+    @TransactionalEventListener
+    public void onSweetChanged(SweetChangedEvent event) {
+        if (!props.isNameIndexEnabled()) return;
+        lock.writeLock().lock();
+        try {
+            if (pending != null) pending.add(event);
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Stops answering until the next rebuild that starts after this call completes. */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ids of sweets whose name contains the fragment (case-insensitive), or null when the index cannot
+     * answer: disabled, not built yet, fragment shorter than a trigram, or too many candidates.
+     */
+    public Set<Long> idsContaining(String fragment) {
+        if (!ready || !props.isNameIndexEnabled()) return null;
+        String needle = normalize(fragment);
+        if (needle.length() < GRAM) return null;
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(needle)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) return Set.of();
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Long> result = new HashSet<>();
+            outer:
+            for (Long id : lists.getFirst()) {
+                for (int i = 1; i < lists.size(); i++) {
+                    if (!lists.get(i).contains(id)) continue outer;
+                }
+                // Trigram hits are necessary, not sufficient: confirm the actual substring
+                if (names.get(id).contains(needle)) {
+                    result.add(id);
+                    if (result.size() > props.getNameIndexMaxCandidates()) return null;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(SweetChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> {
+                remove(event.id());
+                add(postings, names, event.id(), event.sweet().name());
+            }
+            case DELETED -> remove(event.id());
+            case STOCK_CHANGED -> { }
+        }
+    }
+
+    private void remove(Long id) {
+        String old = names.remove(id);
+        if (old == null) return;
+        for (String gram : grams(old)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) postings.remove(gram);
+            }
+        }
+    }
+
+    private static void add(Map<String, Set<Long>> postings, Map<Long, String> names, Long id, String name) {
+        String normalized = normalize(name);
+        names.put(id, normalized);
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    static String normalize(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> grams(String s) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) {
+            grams.add(s.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.sweet_shop.security;
 
+import com.example.sweet_shop.config.JwtProperties;
+import com.example.sweet_shop.jfr.JwtAuthenticationEvent;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -14,32 +18,63 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.lang.NonNull;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final UserSecurityVersionCache securityVersionCache;
+    private final JwtProperties props;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+                                   UserSecurityVersionCache securityVersionCache, JwtProperties props) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.securityVersionCache = securityVersionCache;
+        this.props = props;
     }
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        JwtAuthenticationEvent event = new JwtAuthenticationEvent();
+        event.begin();
+        String result = "none";
         String header = request.getHeader("Authorization");
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
-            if (jwtTokenProvider.isValid(token)) {
-                String username = jwtTokenProvider.extractUsername(token);
-                if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Optional<JwtClaims> claims = jwtTokenProvider.verify(token);
+            result = claims.isPresent() ? "rejected" : "invalid";
+            if (claims.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = resolveUser(claims.get());
+                if (userDetails != null) {
                     var auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(auth);
+                    result = "authenticated";
                 }
             }
         }
+        event.finish(result, props.isClaimsAuthentication());
         filterChain.doFilter(request, response);
     }
+
+    // In claims mode the roles come from the verified token; only the cached security version is checked
+    private UserDetails resolveUser(JwtClaims claims) {
+        Integer securityVersion = props.isClaimsAuthentication() ? claims.securityVersion() : null;
+        if (securityVersion == null) {
+            return userDetailsService.loadUserByUsername(claims.username());
+        }
+        if (!securityVersionCache.isCurrent(claims.username(), securityVersion)) {
+            return null;
+        }
+        List<SimpleGrantedAuthority> authorities = claims.roles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return User.withUsername(claims.username())
+                .password("")
+                .authorities(authorities)
+                .build();
+    }
 }
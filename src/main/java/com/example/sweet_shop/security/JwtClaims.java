@@ -0,0 +1,9 @@
+package com.example.sweet_shop.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The verified content of a token. {@code securityVersion} is null for tokens issued without one.
+ */
+public record JwtClaims(String username, List<String> roles, Integer securityVersion, Instant expiresAt) {}
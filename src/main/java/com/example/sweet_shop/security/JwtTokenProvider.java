@@ -1,61 +1,155 @@
 package com.example.sweet_shop.security;
 
+import com.example.sweet_shop.cache.BoundedCache;
 import com.example.sweet_shop.config.JwtProperties;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+/**
+ * Issues and verifies HS256 tokens. Verification time is published as {@code auth.jwt.verify}, tagged
+ * {@code result=cached|valid|invalid}, and signing time as {@code auth.jwt.sign}.
+ */
 @Component
-public class JwtTokenProvider {
+public class JwtTokenProvider implements MeterBinder {
+
+    public static final String SECURITY_VERSION_CLAIM = "sv";
 
     private final JwtProperties props;
     private final Key key;
+    // Immutable and thread-safe once built, so one instance serves every request
+    private final JwtParser parser;
+    // Verified claims by SHA-256 of the token; a repeat token skips the HMAC check until it expires
+    private final BoundedCache<String, JwtClaims> verified;
+    // Null until the registry binds us, e.g. in plain unit tests
+    private volatile Timers timers;
 
     public JwtTokenProvider(JwtProperties props) {
         this.props = props;
         this.key = Keys.hmacShaKeyFor(props.getSecret().getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verified = new BoundedCache<>(props.getVerifiedTokenCacheSize(), props.getVerifiedTokenCacheTtl());
     }
     public long getExpirationMinutes() {
         return props.getExpirationMinutes();
     }
 
     public String generateToken(String username, List<String> roles) {
+        return generateToken(username, roles, null);
+    }
+
+    public String generateToken(String username, List<String> roles, Integer securityVersion) {
+        long start = System.nanoTime();
         Instant now = Instant.now();
         Instant exp = now.plus(props.getExpirationMinutes(), ChronoUnit.MINUTES);
-    return Jwts.builder()
+        String token = Jwts.builder()
         .setSubject(username)
                 .claim("roles", roles)
+                .claim(SECURITY_VERSION_CLAIM, securityVersion)
         .setIssuedAt(Date.from(now))
         .setExpiration(Date.from(exp))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
+        record(start, Timers::sign);
+        return token;
+    }
+
+    /**
+     * Verifies signature and expiry once and returns the claims, or empty if the token is not acceptable.
+     */
+    public Optional<JwtClaims> verify(String token) {
+        if (token == null || token.isBlank()) return Optional.empty();
+        long start = System.nanoTime();
+        String digest = digest(token);
+        JwtClaims cached = verified.get(digest);
+        if (cached != null) {
+            record(start, Timers::cached);
+            return Optional.of(cached);
+        }
+        try {
+            JwtClaims claims = toClaims(parseClaims(token).getBody());
+            verified.put(digest, claims, claims.expiresAt() == null ? Long.MAX_VALUE : claims.expiresAt().toEpochMilli());
+            record(start, Timers::valid);
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            record(start, Timers::invalid);
+            return Optional.empty();
+        }
     }
 
     public String extractUsername(String token) {
         return parseClaims(token).getBody().getSubject();
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> extractRoles(String token) {
-        return (List<String>) parseClaims(token).getBody().get("roles", List.class);
+        return toClaims(parseClaims(token).getBody()).roles();
+    }
+
+    // Null for tokens issued without a security version
+    public Integer extractSecurityVersion(String token) {
+        return parseClaims(token).getBody().get(SECURITY_VERSION_CLAIM, Integer.class);
     }
 
     public boolean isValid(String token) {
-        try {
-            parseClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return verify(token).isPresent();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        timers = new Timers(
+                verifyTimer(registry, "cached"),
+                verifyTimer(registry, "valid"),
+                verifyTimer(registry, "invalid"),
+                Timer.builder("auth.jwt.sign").register(registry));
+    }
+
+    private static Timer verifyTimer(MeterRegistry registry, String result) {
+        return Timer.builder("auth.jwt.verify").tag("result", result).register(registry);
+    }
+
+    private void record(long start, Function<Timers, Timer> which) {
+        Timers t = timers;
+        if (t != null) which.apply(t).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private record Timers(Timer cached, Timer valid, Timer invalid, Timer sign) {
     }
 
     private Jws<Claims> parseClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        return parser.parseClaimsJws(token);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JwtClaims toClaims(Claims body) {
+        List<String> roles = body.get("roles", List.class);
+        return new JwtClaims(body.getSubject(),
+                roles == null ? List.of() : List.copyOf(roles),
+                body.get(SECURITY_VERSION_CLAIM, Integer.class),
+                body.getExpiration() == null ? null : body.getExpiration().toInstant());
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,167 @@
+package com.example.sweet_shop.security;
+
+import com.example.sweet_shop.config.PasswordHashingProperties;
+import com.example.sweet_shop.error.ServiceUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Runs password hashing (BCrypt, roughly 100 ms of CPU per call) on a small fixed pool with a bounded queue,
+ * so a login or registration storm can occupy at most that many cores and never the request threads.
+ * When the queue is full the caller gets a {@link ServiceUnavailableException} (503) straight away.
+ * Queue depth, busy threads, rejections, queue wait and hash time are published as {@code auth.password.hash.*} meters.
+ */
+@Component
+public class PasswordHasher implements MeterBinder {
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    // Real timers rather than function timers so auth.password.hash can carry a percentile histogram; null until bound
+    private volatile Timers timers;
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHasher(PasswordEncoder encoder, PasswordHashingProperties props) {
+        this.encoder = encoder;
+        this.threads = props.getThreads() > 0 ? props.getThreads() : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(props.getQueueCapacity()),
+                Thread.ofPlatform().name("password-hash-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encoder.encode(rawPassword), Timers::encode);
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> encoder.matches(rawPassword, encodedPassword), Timers::matches);
+    }
+
+    /**
+     * Hashes a batch across all pool threads, for bulk provisioning. Unlike single calls it waits for queue space
+     * rather than failing, and keeps at most one task per thread in flight so interactive logins still get queued.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        Semaphore inFlight = new Semaphore(threads);
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        try {
+            for (CharSequence raw : rawPasswords) {
+                inFlight.acquire();
+                Callable<String> task = () -> {
+                    try {
+                        return encoder.encode(raw);
+                    } finally {
+                        inFlight.release();
+                    }
+                };
+                Future<String> future;
+                while ((future = offer(task, Timers::encode)) == null) {
+                    if (executor.isShutdown()) throw new ServiceUnavailableException("password hashing stopped");
+                    Thread.sleep(5);
+                }
+                futures.add(future);
+            }
+            List<String> hashes = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                hashes.add(await(future));
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("password hashing interrupted");
+        } catch (RuntimeException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e;
+        }
+    }
+
+    /** True when the stored hash was made with a lower cost than configured; cheap, no hashing involved. */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> work, Function<Timers, Timer> timer) {
+        Future<T> future = offer(work, timer);
+        if (future == null) {
+            rejected.increment();
+            throw new ServiceUnavailableException("too many concurrent sign-ins, please retry");
+        }
+        return await(future);
+    }
+
+    // null when the queue is full
+    private <T> Future<T> offer(Callable<T> work, Function<Timers, Timer> timer) {
+        long queuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                record(Timers::waiting, startedAt - queuedAt);
+                try {
+                    return work.call();
+                } finally {
+                    record(timer, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("password check interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.password.hash.queue", executor, e -> e.getQueue().size()).register(registry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+        FunctionCounter.builder("auth.password.hash.rejected", rejected, LongAdder::sum).register(registry);
+        timers = new Timers(
+                Timer.builder("auth.password.hash").tag("operation", "encode").register(registry),
+                Timer.builder("auth.password.hash").tag("operation", "matches").register(registry),
+                Timer.builder("auth.password.hash.wait").register(registry));
+    }
+
+    private void record(Function<Timers, Timer> timer, long nanos) {
+        Timers t = timers;
+        if (t != null) timer.apply(t).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private record Timers(Timer encode, Timer matches, Timer waiting) {
+    }
+}
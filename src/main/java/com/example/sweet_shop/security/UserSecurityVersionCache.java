@@ -0,0 +1,71 @@
+package com.example.sweet_shop.security;
+
+import com.example.sweet_shop.config.JwtProperties;
+import com.example.sweet_shop.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user security version and enabled flag, cached for a short TTL. A token is honoured only while
+ * the version it was issued with matches, so role changes and disabling take effect within one TTL
+ * (immediately on the node that made the change, via {@link #evict}).
+ */
+@Component
+public class UserSecurityVersionCache {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    private final UserRepository userRepository;
+    // Read-write so the lookup hits the primary when replicas are configured: a replica could still show the old version
+    private final TransactionTemplate primaryRead;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public UserSecurityVersionCache(UserRepository userRepository, JwtProperties props,
+                                    PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.ttlNanos = props.getSecurityVersionTtl().toNanos();
+    }
+
+    public boolean isCurrent(String username, int tokenVersion) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(username);
+        if (entry == null || now - entry.loadedAt() > ttlNanos) {
+            entry = load(username, now);
+        }
+        return entry.enabled() && entry.version() == tokenVersion;
+    }
+
+    // Evicts now and again once the surrounding transaction ends, so a value read mid-transaction never lingers
+    public void evict(String username) {
+        entries.remove(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entries.remove(username);
+                }
+            });
+        }
+    }
+
+    private Entry load(String username, long now) {
+        Entry entry = primaryRead.execute(status -> userRepository.findSecurityViewByUsername(username))
+                .map(v -> new Entry(v.getSecurityVersion(), v.isEnabled(), now))
+                .orElse(new Entry(-1, false, now));
+        // Crude bound: the map only holds recently active users, so dropping it all is cheap
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.clear();
+        }
+        entries.put(username, entry);
+        return entry;
+    }
+
+    private record Entry(int version, boolean enabled, long loadedAt) {}
+}
@@ -2,15 +2,19 @@ package com.example.sweet_shop.service;
 
 import com.example.sweet_shop.domain.User;
 import com.example.sweet_shop.error.NotFoundException;
+import com.example.sweet_shop.jfr.LoginEvent;
+import com.example.sweet_shop.metrics.ServiceMetricsAspect;
+import com.example.sweet_shop.error.ServiceUnavailableException;
 import com.example.sweet_shop.dto.UserRegistrationRequest;
 import com.example.sweet_shop.dto.UserResponse;
 import com.example.sweet_shop.dto.auth.AuthResponse;
 import com.example.sweet_shop.dto.auth.LoginRequest;
 import com.example.sweet_shop.repository.UserRepository;
 import com.example.sweet_shop.security.JwtTokenProvider;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.example.sweet_shop.security.PasswordHasher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -21,32 +25,59 @@ public class AuthService {
 
     private final UserService userService;
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtTokenProvider jwtTokenProvider;
+    // Read-write so the lookup hits the primary when replicas are configured: a user who just registered
+    // must be able to log in before the replicas have their row
+    private final TransactionTemplate primaryRead;
 
-    public AuthService(UserService userService, UserRepository userRepository, PasswordEncoder passwordEncoder, JwtTokenProvider jwtTokenProvider) {
+    public AuthService(UserService userService, UserRepository userRepository, PasswordHasher passwordHasher,
+                       JwtTokenProvider jwtTokenProvider, PlatformTransactionManager transactionManager) {
         this.userService = userService;
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.primaryRead = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     public UserResponse register(UserRegistrationRequest request) {
         return userService.register(request);
     }
 
-    @Transactional(readOnly = true)
+    // Not @Transactional: no pooled connection is held while the password check waits for a hashing thread
     public AuthResponse login(LoginRequest request) {
-        User user = userRepository.findByUsername(request.username())
-                .orElseThrow(() -> new NotFoundException("invalid credentials"));
-        if (!passwordEncoder.matches(request.password(), user.getPasswordHash())) {
-            throw new NotFoundException("invalid credentials");
+        LoginEvent event = new LoginEvent();
+        event.begin();
+        String outcome = "ok";
+        boolean rehashed = false;
+        try {
+            User user = primaryRead.execute(status -> userRepository.findByUsername(request.username()))
+                    .orElseThrow(() -> new NotFoundException("invalid credentials"));
+            if (!passwordHasher.matches(request.password(), user.getPasswordHash())) {
+                throw new NotFoundException("invalid credentials");
+            }
+            if (passwordHasher.upgradeEncoding(user.getPasswordHash())) {
+                rehashed = rehash(user, request.password());
+            }
+            var roles = user.getRoles().stream().map(r -> r.getName().name()).collect(Collectors.toList());
+            var token = jwtTokenProvider.generateToken(user.getUsername(), roles, user.getSecurityVersion());
+            var issuedAt = Instant.now();
+            var expiresAt = issuedAt.plus(jwtTokenProvider.getExpirationMinutes(), ChronoUnit.MINUTES);
+            return new AuthResponse(token, user.getUsername(), user.getRoles().stream().map(r -> r.getName().name()).collect(Collectors.toSet()), issuedAt, expiresAt);
+        } catch (RuntimeException e) {
+            outcome = ServiceMetricsAspect.outcome(e);
+            throw e;
+        } finally {
+            event.finish(outcome, rehashed);
+        }
+    }
+
+    // Brings the stored hash up to the configured cost; best effort, a busy hasher just means next login tries again
+    private boolean rehash(User user, String rawPassword) {
+        try {
+            return userRepository.updatePasswordHash(user.getId(), user.getPasswordHash(), passwordHasher.encode(rawPassword)) > 0;
+        } catch (ServiceUnavailableException ignored) {
+            return false;
         }
-        var roles = user.getRoles().stream().map(r -> r.getName().name()).collect(Collectors.toList());
-        var token = jwtTokenProvider.generateToken(user.getUsername(), roles);
-        var issuedAt = Instant.now();
-        var expiresAt = issuedAt.plus(jwtTokenProvider.getExpirationMinutes(), ChronoUnit.MINUTES);
-        return new AuthResponse(token, user.getUsername(), user.getRoles().stream().map(r -> r.getName().name()).collect(Collectors.toSet()), issuedAt, expiresAt);
     }
 }
@@ -0,0 +1,11 @@
+package com.example.sweet_shop.service;
+
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+
+import java.util.List;
+
+/**
+ * Outcome of one combined decrement: the sweet after the batch and, per request in arrival order,
+ * whether its quantity was granted.
+ */
+public record PurchaseAllocation(SweetResponse sweet, List<Boolean> granted) {}
@@ -0,0 +1,155 @@
+package com.example.sweet_shop.service;
+
+import com.example.sweet_shop.config.PurchaseCombiningProperties;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import com.example.sweet_shop.error.InsufficientStockException;
+import com.example.sweet_shop.error.ServiceUnavailableException;
+import com.example.sweet_shop.jfr.SweetPurchaseEvent;
+import com.example.sweet_shop.metrics.ServiceMetricsAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group commit for purchases of a hot sweet. The first buyer of a sweet opens a batch and waits up to
+ * the configured window (or until the batch is full) for concurrent buyers of the same sweet to join,
+ * then applies one locked decrement for all of them via {@link SweetService#purchaseBatch}. Stock is
+ * allocated first-come first-served and each caller gets its own result or error.
+ * No extra threads are involved: the leading request thread does the work for its followers.
+ * <p>
+ * A follower waits at most {@code follower-timeout} for the leader to take its request into the batch and
+ * then fails with 503 without being charged; once taken, the leader always settles it, whatever the batch throws.
+ * Every caller records its own {@code sweets.service{method=purchase}} timing and {@link SweetPurchaseEvent},
+ * as an uncombined purchase would.
+ */
+@Service
+public class PurchaseCombiner {
+
+    private final SweetService sweetService;
+    private final PurchaseCombiningProperties props;
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<Long, Batch> open = new ConcurrentHashMap<>();
+
+    public PurchaseCombiner(SweetService sweetService, PurchaseCombiningProperties props, MeterRegistry registry) {
+        this.sweetService = sweetService;
+        this.props = props;
+        this.registry = registry;
+    }
+
+    public SweetResponse purchase(Long id, int quantity) {
+        if (!props.isEnabled()) {
+            return sweetService.purchase(id, quantity);
+        }
+        if (quantity <= 0) throw new IllegalArgumentException("quantity must be positive");
+        SweetPurchaseEvent event = new SweetPurchaseEvent();
+        event.begin();
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "ok";
+        try {
+            return combine(id, quantity);
+        } catch (RuntimeException | Error e) {
+            outcome = ServiceMetricsAspect.outcome(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("sweets.service")
+                    .tag("method", "purchase")
+                    .tag("outcome", outcome)
+                    .register(registry));
+            event.finish(id, quantity, outcome, true);
+        }
+    }
+
+    private SweetResponse combine(Long id, int quantity) {
+        Request request = new Request(quantity);
+        Batch[] joined = new Batch[1];
+        boolean[] leader = new boolean[1];
+        open.compute(id, (k, current) -> {
+            Batch batch = current == null ? new Batch() : current;
+            leader[0] = current == null;
+            joined[0] = batch;
+            batch.requests.add(request);
+            if (batch.requests.size() >= props.getMaxBatchSize()) {
+                batch.full.countDown();
+                return null;
+            }
+            return batch;
+        });
+        if (leader[0]) {
+            lead(id, joined[0]);
+            return await(request, false);
+        }
+        return await(request, true);
+    }
+
+    private SweetResponse await(Request request, boolean bounded) {
+        try {
+            if (!bounded) {
+                return request.result.get();
+            }
+            try {
+                return request.result.get(props.getFollowerTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (request.taken.compareAndSet(false, true)) {
+                    throw new ServiceUnavailableException("purchase batch did not start in time");
+                }
+                // Already in a batch the leader is applying; it completes the request whatever happens
+                return request.result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("interrupted while waiting for a purchase batch");
+        }
+    }
+
+    private void lead(Long id, Batch batch) {
+        try {
+            batch.full.await(props.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Closing happens under the map's bin lock, so no request can join after this point
+        open.remove(id, batch);
+        // Followers that gave up before this point are left out and never charged
+        List<Request> requests = batch.requests.stream().filter(r -> r.taken.compareAndSet(false, true)).toList();
+        try {
+            List<Integer> quantities = requests.stream().map(Request::quantity).toList();
+            PurchaseAllocation allocation = sweetService.purchaseBatch(id, quantities);
+            for (int i = 0; i < requests.size(); i++) {
+                if (allocation.granted().get(i)) {
+                    requests.get(i).result.complete(allocation.sweet());
+                } else {
+                    requests.get(i).result.completeExceptionally(new InsufficientStockException("insufficient stock"));
+                }
+            }
+        } catch (Throwable t) {
+            // Errors included: a follower must never be left waiting on a batch that died
+            requests.forEach(r -> r.result.completeExceptionally(t));
+            if (t instanceof Error e) throw e;
+        }
+    }
+
+    private static final class Batch {
+        final List<Request> requests = new ArrayList<>();
+        final CountDownLatch full = new CountDownLatch(1);
+    }
+
+    private record Request(int quantity, CompletableFuture<SweetResponse> result, AtomicBoolean taken) {
+        Request(int quantity) {
+            this(quantity, new CompletableFuture<>(), new AtomicBoolean());
+        }
+    }
+}
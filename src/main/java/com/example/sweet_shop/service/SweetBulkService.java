@@ -0,0 +1,252 @@
+package com.example.sweet_shop.service;
+
+import com.example.sweet_shop.bulk.SweetImportReader;
+import com.example.sweet_shop.cache.JdbcWriteCacheLocks;
+import com.example.sweet_shop.config.BulkOperationProperties;
+import com.example.sweet_shop.domain.Sweet;
+import com.example.sweet_shop.dto.sweet.*;
+import com.example.sweet_shop.repository.SweetRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog writes that arrive in bulk. Rows are processed in chunks of {@code app.sweets.bulk.chunk-size},
+ * each chunk in its own transaction, so an import of any size holds at most one chunk in memory and a
+ * late failure does not roll back rows already reported as created.
+ */
+@Service
+public class SweetBulkService {
+
+    private final SweetRepository sweetRepository;
+    private final ApplicationEventPublisher events;
+    private final Validator validator;
+    private final TransactionTemplate tx;
+    private final BulkOperationProperties props;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    // Timestamps are bound in the zone Hibernate uses, so JDBC-written updated_at reads back unchanged
+    private final TimeZone jdbcTimeZone;
+
+    public SweetBulkService(SweetRepository sweetRepository, ApplicationEventPublisher events, Validator validator,
+                            PlatformTransactionManager transactionManager, BulkOperationProperties props,
+                            JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                            @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String jdbcTimeZone) {
+        this.sweetRepository = sweetRepository;
+        this.events = events;
+        this.validator = validator;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.props = props;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTimeZone = jdbcTimeZone.isBlank() ? TimeZone.getDefault() : TimeZone.getTimeZone(jdbcTimeZone);
+    }
+
+    /**
+     * Creates every valid row whose name is not taken. Per chunk, existing names are found with one
+     * {@code IN} query and the new sweets are inserted as JDBC batches (ids come from the pooled
+     * generator). If a chunk still hits a constraint, e.g. a concurrent create of the same name,
+     * its rows are retried one by one so only the offending row is rejected.
+     * <p>
+     * Chunks commit as they go, so the row cap cannot reject the whole body once it is reached: the import stops
+     * there and the result is marked {@code truncated}.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public SweetImportResult importSweets(Iterator<SweetImportReader.Row> rows) {
+        List<SweetImportRowResult> results = new ArrayList<>();
+        List<SweetImportReader.Row> chunk = new ArrayList<>(props.getChunkSize());
+        int read = 0;
+        boolean truncated = false;
+        while (rows.hasNext()) {
+            if (read++ == props.getMaxRows()) {
+                truncated = true;
+                break;
+            }
+            chunk.add(rows.next());
+            if (chunk.size() == props.getChunkSize()) {
+                importChunk(chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) importChunk(chunk, results);
+        return SweetImportResult.of(results, truncated);
+    }
+
+    private void importChunk(List<SweetImportReader.Row> chunk, List<SweetImportRowResult> results) {
+        // Outcome per position in the chunk; rows still null afterwards are the ones to insert
+        SweetImportRowResult[] outcome = new SweetImportRowResult[chunk.size()];
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            SweetImportReader.Row row = chunk.get(i);
+            String error = row.error() != null ? row.error() : violations(row.request());
+            if (error != null) {
+                outcome[i] = SweetImportRowResult.invalid(row.line(), row.name(), error);
+            } else if (!seen.add(row.name())) {
+                outcome[i] = SweetImportRowResult.duplicate(row.line(), row.name(), "duplicate name in import");
+            }
+        }
+        Set<String> existing = seen.isEmpty() ? Set.of() : sweetRepository.findExistingNames(seen);
+        List<Integer> toInsert = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (outcome[i] != null) continue;
+            if (existing.contains(chunk.get(i).name())) {
+                outcome[i] = SweetImportRowResult.duplicate(chunk.get(i).line(), chunk.get(i).name(), "sweet name already exists");
+            } else {
+                toInsert.add(i);
+            }
+        }
+        try {
+            tx.executeWithoutResult(status -> insert(chunk, toInsert, outcome));
+        } catch (DataIntegrityViolationException e) {
+            for (Integer i : toInsert) {
+                try {
+                    tx.executeWithoutResult(status -> insert(chunk, List.of(i), outcome));
+                } catch (DataIntegrityViolationException rowFailure) {
+                    outcome[i] = SweetImportRowResult.duplicate(chunk.get(i).line(), chunk.get(i).name(), "sweet name already exists");
+                }
+            }
+        }
+        results.addAll(Arrays.asList(outcome));
+    }
+
+    private void insert(List<SweetImportReader.Row> chunk, List<Integer> positions, SweetImportRowResult[] outcome) {
+        List<Sweet> sweets = new ArrayList<>(positions.size());
+        for (Integer i : positions) {
+            CreateSweetRequest r = chunk.get(i).request();
+            sweets.add(Sweet.builder().name(r.name()).category(r.category()).price(r.price()).quantity(r.quantity()).build());
+        }
+        sweetRepository.saveAll(sweets);
+        sweetRepository.flush();
+        for (int k = 0; k < positions.size(); k++) {
+            Sweet s = sweets.get(k);
+            int i = positions.get(k);
+            outcome[i] = SweetImportRowResult.created(chunk.get(i).line(), s.getName(), s.getId());
+            events.publishEvent(SweetChangedEvent.of(SweetChangedEvent.Type.CREATED, new SweetResponse(s.getId(), s.getName(),
+                    s.getCategory(), s.getPrice(), s.getQuantity(), s.getCreatedAt(), s.getUpdatedAt())));
+        }
+    }
+
+    /**
+     * Applies many restock / price rows as batched {@code UPDATE}s, one transaction per chunk, without
+     * loading entities. Same admin-only rule as {@link SweetService#restock}. The stock guard lives in
+     * the statement, so a row that would take stock below zero matches nothing and is reported instead
+     * of failing the chunk. Applied rows are re-read in one query and published as change events.
+     * The statements bypass Hibernate, so each chunk's sweets are soft-locked in the second-level cache for
+     * the length of its transaction (see {@link JdbcWriteCacheLocks}).
+     * <p>
+     * If the database rejects a chunk, e.g. a quantity that would overflow its column, the chunk is rolled back
+     * and its rows are retried one by one, so only the offending rows are reported {@code FAILED}; earlier chunks
+     * stay committed either way.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public StockUpdateResult updateStock(List<StockUpdateLine> lines) {
+        if (lines.size() > props.getMaxRows()) {
+            throw new IllegalArgumentException("update exceeds " + props.getMaxRows() + " rows");
+        }
+        List<StockUpdateRowResult> results = new ArrayList<>(lines.size());
+        for (int from = 0; from < lines.size(); from += props.getChunkSize()) {
+            int start = from;
+            List<StockUpdateLine> chunk = lines.subList(from, Math.min(from + props.getChunkSize(), lines.size()));
+            try {
+                results.addAll(tx.execute(status -> updateChunk(start, chunk)));
+            } catch (DataAccessException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    int index = start + i;
+                    StockUpdateLine line = chunk.get(i);
+                    try {
+                        results.addAll(tx.execute(status -> updateChunk(index, List.of(line))));
+                    } catch (DataAccessException rowFailure) {
+                        results.add(StockUpdateRowResult.failed(index, line.sweetId(), "update rejected by the database"));
+                    }
+                }
+            }
+        }
+        return StockUpdateResult.of(results);
+    }
+
+    private List<StockUpdateRowResult> updateChunk(int offset, List<StockUpdateLine> chunk) {
+        Set<Long> ids = chunk.stream().map(StockUpdateLine::sweetId).collect(Collectors.toSet());
+        JdbcWriteCacheLocks.lockForWrite(EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory),
+                Sweet.class, ids);
+        boolean[] expected = expectedOutcomes(chunk, ids);
+        Timestamp now = Timestamp.from(Instant.now());
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE sweets SET quantity = quantity + ?, price = COALESCE(?, price), updated_at = ? " +
+                        "WHERE id = ? AND quantity + ? >= 0",
+                chunk, chunk.size(), (ps, line) -> {
+                    ps.setInt(1, line.quantityDelta());
+                    ps.setBigDecimal(2, line.price());
+                    ps.setTimestamp(3, now, Calendar.getInstance(jdbcTimeZone));
+                    ps.setLong(4, line.sweetId());
+                    ps.setInt(5, line.quantityDelta());
+                });
+        Map<Long, SweetResponse> after = sweetRepository.findResponsesByIdIn(ids).stream()
+                .collect(Collectors.toMap(SweetResponse::id, r -> r));
+        List<StockUpdateRowResult> results = new ArrayList<>(chunk.size());
+        Set<Long> published = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            StockUpdateLine line = chunk.get(i);
+            SweetResponse sweet = after.get(line.sweetId());
+            // Drivers that cannot report per-row counts return SUCCESS_NO_INFO (-2); those rows fall back to the snapshot
+            boolean applied = counts[0][i] >= 0 ? counts[0][i] > 0 : expected[i];
+            StockUpdateRowResult.Status status = applied ? StockUpdateRowResult.Status.APPLIED
+                    : sweet == null ? StockUpdateRowResult.Status.NOT_FOUND
+                    : StockUpdateRowResult.Status.INSUFFICIENT_STOCK;
+            results.add(new StockUpdateRowResult(offset + i, line.sweetId(), status, applied ? sweet : null, null));
+            if (applied && published.add(line.sweetId())) {
+                SweetChangedEvent.Type type = line.price() == null ? SweetChangedEvent.Type.STOCK_CHANGED : SweetChangedEvent.Type.UPDATED;
+                events.publishEvent(SweetChangedEvent.of(type, sweet));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Which rows the guarded statements will apply, worked out from the stock the chunk starts with. The rows are
+     * read {@code FOR UPDATE}, so nothing else can move their stock before the batch runs, and the guard is replayed
+     * in statement order so repeated ids see each other's deltas.
+     */
+    private boolean[] expectedOutcomes(List<StockUpdateLine> chunk, Set<Long> ids) {
+        // Long, so a delta that would overflow the INT column is not mistaken for a negative result
+        Map<Long, Long> stock = new HashMap<>();
+        jdbcTemplate.query("SELECT id, quantity FROM sweets WHERE id IN (" + String.join(",", Collections.nCopies(ids.size(), "?"))
+                        + ") FOR UPDATE",
+                rs -> {
+                    stock.put(rs.getLong(1), rs.getLong(2));
+                }, ids.toArray());
+        boolean[] expected = new boolean[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            StockUpdateLine line = chunk.get(i);
+            Long quantity = stock.get(line.sweetId());
+            if (quantity != null && quantity + line.quantityDelta() >= 0) {
+                stock.put(line.sweetId(), quantity + line.quantityDelta());
+                expected[i] = true;
+            }
+        }
+        return expected;
+    }
+
+    private String violations(CreateSweetRequest request) {
+        Set<ConstraintViolation<CreateSweetRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
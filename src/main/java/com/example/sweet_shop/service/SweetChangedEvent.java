@@ -0,0 +1,26 @@
+package com.example.sweet_shop.service;
+
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+
+/**
+ * Published by {@link SweetService} for every write to a sweet. Listeners that keep derived state
+ * (indexes, caches, change streams) consume it after commit. {@code sweet} is the state after the
+ * change and is null for {@link Type#DELETED}.
+ */
+public record SweetChangedEvent(Type type, Long id, SweetResponse sweet) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        STOCK_CHANGED,
+        DELETED
+    }
+
+    public static SweetChangedEvent of(Type type, SweetResponse sweet) {
+        return new SweetChangedEvent(type, sweet.id(), sweet);
+    }
+
+    public static SweetChangedEvent deleted(Long id) {
+        return new SweetChangedEvent(Type.DELETED, id, null);
+    }
+}
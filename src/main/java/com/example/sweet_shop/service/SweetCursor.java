@@ -0,0 +1,38 @@
+package com.example.sweet_shop.service;
+
+import com.example.sweet_shop.dto.sweet.SweetSort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset continuation token: the sort key and id of the last row of the previous page.
+ * Encoded as url-safe base64 of {@code sort|id|key} so clients treat it as a black box.
+ */
+record SweetCursor(SweetSort sort, long lastId, String lastKey) {
+
+    String encode() {
+        String raw = sort.name() + "|" + lastId + "|" + (lastKey == null ? "" : lastKey);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SweetCursor decode(String token, SweetSort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            SweetSort sort = SweetSort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new IllegalArgumentException("cursor does not match sort");
+            }
+            long lastId = Long.parseLong(parts[1]);
+            String lastKey = parts[2];
+            if (sort == SweetSort.PRICE) {
+                new BigDecimal(lastKey);
+            }
+            return new SweetCursor(sort, lastId, lastKey);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+    }
+}
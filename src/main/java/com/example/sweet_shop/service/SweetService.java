@@ -1,25 +1,73 @@
 package com.example.sweet_shop.service;
 
+import com.example.sweet_shop.config.CatalogSearchProperties;
 import com.example.sweet_shop.domain.Sweet;
+import com.example.sweet_shop.error.InsufficientStockException;
 import com.example.sweet_shop.error.NotFoundException;
 import com.example.sweet_shop.dto.sweet.*;
+import com.example.sweet_shop.jfr.SweetPurchaseEvent;
+import com.example.sweet_shop.jfr.SweetSearchEvent;
+import com.example.sweet_shop.metrics.ServiceMetricsAspect;
 import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.routing.ReplicaRouter;
+import com.example.sweet_shop.search.CatalogFilterEngine;
+import com.example.sweet_shop.search.CatalogVersion;
+import com.example.sweet_shop.search.SearchResultCache;
+import com.example.sweet_shop.search.SweetNameIndex;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class SweetService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BATCH_IDS = 100;
+
     private final SweetRepository sweetRepository;
+    private final ApplicationEventPublisher events;
+    private final SweetNameIndex nameIndex;
+    private final CatalogFilterEngine filterEngine;
+    private final SearchResultCache searchCache;
+    private final CatalogVersion catalogVersion;
+    private final CatalogSearchProperties searchProperties;
+    private final TransactionTemplate readOnly;
 
-    public SweetService(SweetRepository sweetRepository) {
+    public SweetService(SweetRepository sweetRepository, ApplicationEventPublisher events,
+                        SweetNameIndex nameIndex, CatalogFilterEngine filterEngine, SearchResultCache searchCache,
+                        CatalogVersion catalogVersion, CatalogSearchProperties searchProperties,
+                        PlatformTransactionManager transactionManager) {
         this.sweetRepository = sweetRepository;
+        this.events = events;
+        this.nameIndex = nameIndex;
+        this.filterEngine = filterEngine;
+        this.searchCache = searchCache;
+        this.catalogVersion = catalogVersion;
+        this.searchProperties = searchProperties;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
     }
 
     @Transactional
@@ -33,7 +81,7 @@ public class SweetService {
                 .price(request.price())
                 .quantity(request.quantity())
                 .build();
-        return toResponse(sweetRepository.save(sweet));
+        return changed(SweetChangedEvent.Type.CREATED, sweetRepository.save(sweet));
     }
 
     @Transactional
@@ -47,29 +95,98 @@ public class SweetService {
         sweet.setCategory(request.category());
         sweet.setPrice(request.price());
         sweet.setQuantity(request.quantity());
-        return toResponse(sweet);
+        return changed(SweetChangedEvent.Type.UPDATED, sweetRepository.saveAndFlush(sweet));
     }
 
+    /**
+     * Single guarded {@code UPDATE ... WHERE quantity >= ?}: the database serializes concurrent buyers on
+     * the row lock, so no update is lost and nothing is read before the write.
+     */
     @Transactional
     public SweetResponse purchase(Long id, int quantity) {
-        if (quantity <= 0) throw new IllegalArgumentException("quantity must be positive");
-    Sweet sweet = sweetRepository.findById(id)
-        .orElseThrow(() -> new NotFoundException("sweet not found"));
-        if (sweet.getQuantity() < quantity) {
-            throw new IllegalArgumentException("insufficient stock");
+        SweetPurchaseEvent event = new SweetPurchaseEvent();
+        event.begin();
+        String outcome = "ok";
+        try {
+            if (quantity <= 0) throw new IllegalArgumentException("quantity must be positive");
+            if (sweetRepository.decrementStock(id, quantity, Instant.now()) == 0) {
+                if (!sweetRepository.existsById(id)) {
+                    throw new NotFoundException("sweet not found");
+                }
+                throw new InsufficientStockException("insufficient stock");
+            }
+            Sweet sweet = sweetRepository.findCurrentById(id)
+                    .orElseThrow(() -> new NotFoundException("sweet not found"));
+            return changed(SweetChangedEvent.Type.STOCK_CHANGED, sweet);
+        } catch (RuntimeException e) {
+            outcome = ServiceMetricsAspect.outcome(e);
+            throw e;
+        } finally {
+            event.finish(id, quantity, outcome);
+        }
+    }
+
+    /**
+     * Applies a batch of purchases of one sweet with a single locked read and a single write.
+     * Quantities are granted in order while stock lasts; see {@link PurchaseCombiner}.
+     */
+    @Transactional
+    public PurchaseAllocation purchaseBatch(Long id, List<Integer> quantities) {
+        Sweet sweet = sweetRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new NotFoundException("sweet not found"));
+        int available = sweet.getQuantity();
+        List<Boolean> granted = new ArrayList<>(quantities.size());
+        for (int q : quantities) {
+            boolean ok = q <= available;
+            if (ok) available -= q;
+            granted.add(ok);
+        }
+        if (available != sweet.getQuantity()) {
+            sweet.setQuantity(available);
+            return new PurchaseAllocation(changed(SweetChangedEvent.Type.STOCK_CHANGED, sweetRepository.saveAndFlush(sweet)), granted);
+        }
+        return new PurchaseAllocation(toResponse(sweet), granted);
+    }
+
+    /**
+     * Buys every line of a cart in one transaction. Lines are merged per sweet and decremented in
+     * ascending id order, so concurrent carts always take row locks in the same order and cannot
+     * deadlock; any short or missing line rolls the whole cart back.
+     */
+    @Transactional
+    public List<SweetResponse> checkout(List<CheckoutLine> lines) {
+        SortedMap<Long, Integer> byId = new TreeMap<>();
+        for (CheckoutLine line : lines) {
+            if (line.quantity() <= 0) throw new IllegalArgumentException("quantity must be positive");
+            try {
+                byId.merge(line.sweetId(), line.quantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("quantity too large for sweet " + line.sweetId());
+            }
         }
-        sweet.setQuantity(sweet.getQuantity() - quantity);
-        return toResponse(sweet);
+        Instant now = Instant.now();
+        for (Map.Entry<Long, Integer> e : byId.entrySet()) {
+            if (sweetRepository.decrementStock(e.getKey(), e.getValue(), now) == 0) {
+                if (!sweetRepository.existsById(e.getKey())) {
+                    throw new NotFoundException("sweet not found: " + e.getKey());
+                }
+                throw new InsufficientStockException("insufficient stock for sweet " + e.getKey());
+            }
+        }
+        return sweetRepository.findAllById(byId.keySet()).stream()
+                .sorted(Comparator.comparing(Sweet::getId))
+                .map(s -> changed(SweetChangedEvent.Type.STOCK_CHANGED, s))
+                .toList();
     }
 
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     public SweetResponse restock(Long id, int quantity) {
         if (quantity <= 0) throw new IllegalArgumentException("quantity must be positive");
-    Sweet sweet = sweetRepository.findById(id)
+    Sweet sweet = sweetRepository.findCurrentById(id)
         .orElseThrow(() -> new NotFoundException("sweet not found"));
         sweet.setQuantity(sweet.getQuantity() + quantity);
-        return toResponse(sweet);
+        return changed(SweetChangedEvent.Type.STOCK_CHANGED, sweetRepository.saveAndFlush(sweet));
     }
 
     @Transactional
@@ -78,19 +195,128 @@ public class SweetService {
     Sweet sweet = sweetRepository.findById(id)
         .orElseThrow(() -> new NotFoundException("sweet not found"));
         sweetRepository.delete(sweet);
+        events.publishEvent(SweetChangedEvent.deleted(id));
     }
 
+    // Reads select straight into SweetResponse (see SweetProjectionRepository); no entities are managed
     @Transactional(readOnly = true)
     public List<SweetResponse> search(SweetSearchCriteria criteria) {
-        Specification<Sweet> spec = buildSpec(criteria);
-        return sweetRepository.findAll(spec).stream().map(this::toResponse).toList();
+        SweetSearchEvent event = new SweetSearchEvent();
+        event.begin();
+        List<SweetResponse> rows = sweetRepository.findMatching(buildSpec(criteria), Sort.by("id"), -1);
+        event.finish(criteria, SweetSort.ID.name(), -1, false, "database", rows.size());
+        return rows;
     }
 
+    /**
+     * Keyset-paged search. Reads {@code size + 1} rows past the cursor to know whether another
+     * page exists, so no COUNT or OFFSET is ever issued and page cost stays flat as the table grows.
+     * <p>
+     * Pages are served from the {@link SearchResultCache} unless the caller is inside its own
+     * transaction, whose uncommitted writes must neither be cached nor hidden by a cached page.
+     * The method is deliberately not transactional so a cache hit never borrows a connection; only a
+     * database read opens a read-only transaction, which lets it go to a replica.
+     */
+    public SweetPage searchPage(SweetSearchCriteria criteria, SweetSort sort, String cursor, int size) {
+        SweetSearchEvent event = new SweetSearchEvent();
+        event.begin();
+        SweetSearchCriteria normalized = criteria.normalized();
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        String token = (cursor == null || cursor.isBlank()) ? null : cursor;
+        SweetCursor after = token == null ? null : SweetCursor.decode(token, sort);
+        // Set by whichever path actually loads the page; stays "cache" on a hit
+        String[] source = {"cache"};
+        SweetPage page = TransactionSynchronizationManager.isActualTransactionActive()
+                ? loadPage(normalized, sort, after, limit, source)
+                : searchCache.get(normalized, sort, token, limit, () -> loadPage(normalized, sort, after, limit, source));
+        event.finish(normalized, sort.name(), limit, token != null, source[0], page.items().size());
+        return page;
+    }
+
+    private SweetPage loadPage(SweetSearchCriteria criteria, SweetSort sort, SweetCursor after, int limit,
+                               String[] source) {
+        // Id-ordered pages come from the in-memory filter engine when it is enabled and built
+        List<SweetResponse> rows = sort == SweetSort.ID
+                ? filterEngine.find(criteria, after == null ? null : after.lastId(), limit + 1)
+                : null;
+        source[0] = "engine";
+        if (rows == null) {
+            rows = readOnly.execute(status -> {
+                List<SweetResponse> found =
+                        sweetRepository.findMatching(and(buildSpec(criteria), after(after)), toSort(sort), limit + 1);
+                // Only known once the query has fetched its connection
+                source[0] = ReplicaRouter.readingFromReplica() ? "replica" : "database";
+                return found;
+            });
+        }
+        boolean hasMore = rows.size() > limit;
+        List<SweetResponse> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        String next = hasMore ? cursorOf(sort, pageRows.getLast()).encode() : null;
+        return new SweetPage(pageRows, next, "replica".equals(source[0]));
+    }
+
+    /**
+     * Streams every sweet matching the criteria to {@code sink} in id order, straight off a forward-only
+     * result set fetched {@code app.sweets.search.export-fetch-size} rows at a time. Rows are projected
+     * into responses by the query, so nothing enters the persistence context and heap use stays flat
+     * however large the catalog is. Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long export(SweetSearchCriteria criteria, Consumer<SweetResponse> sink) {
+        long count = 0;
+        try (Stream<SweetResponse> rows = sweetRepository.streamMatching(buildSpec(criteria.normalized()),
+                searchProperties.getExportFetchSize())) {
+            for (var it = rows.iterator(); it.hasNext(); count++) {
+                sink.accept(it.next());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Tag identifying the committed catalog state, for list ETags. Read it before loading the page so
+     * a racing write can only make the tag older than the body, never newer. Null inside a caller's
+     * transaction, whose own writes are not reflected in the version yet.
+     */
+    public String catalogTag() {
+        return TransactionSynchronizationManager.isActualTransactionActive() ? null : catalogVersion.tag();
+    }
+
+    /**
+     * Resolves up to {@link #MAX_BATCH_IDS} ids with one {@code IN} query projected straight to responses.
+     * Duplicates are collapsed; ids that do not exist are listed as missing rather than failing the batch.
+     */
+    @Transactional(readOnly = true)
+    public SweetBatchResponse getByIds(List<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) throw new IllegalArgumentException("ids must not be empty");
+        if (distinct.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("at most " + MAX_BATCH_IDS + " ids per request");
+        }
+        Map<Long, SweetResponse> found = new HashMap<>();
+        for (SweetResponse r : sweetRepository.findResponsesByIdIn(distinct)) found.put(r.id(), r);
+        List<SweetResponse> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinct) {
+            SweetResponse r = found.get(id);
+            if (r != null) items.add(r); else missing.add(id);
+        }
+        return new SweetBatchResponse(items, missing);
+    }
+
+    /** Loads the entity rather than a projection so repeat lookups are served from the second-level cache. */
     @Transactional(readOnly = true)
     public SweetResponse getById(Long id) {
-    Sweet sweet = sweetRepository.findById(id)
-        .orElseThrow(() -> new NotFoundException("sweet not found"));
-        return toResponse(sweet);
+        return sweetRepository.findById(id)
+                .map(this::toResponse)
+                .orElseThrow(() -> new NotFoundException("sweet not found"));
+    }
+
+    // Flushed state goes out with the event so listeners see the final updatedAt
+    private SweetResponse changed(SweetChangedEvent.Type type, Sweet sweet) {
+        SweetResponse response = toResponse(sweet);
+        events.publishEvent(SweetChangedEvent.of(type, response));
+        return response;
     }
 
     private SweetResponse toResponse(Sweet s) {
@@ -113,13 +339,60 @@ public class SweetService {
         return spec;
     }
 
+    private static Specification<Sweet> and(Specification<Sweet> a, Specification<Sweet> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.and(b);
+    }
+
+    private static Sort toSort(SweetSort sort) {
+        return switch (sort) {
+            case ID -> Sort.by("id");
+            case NAME -> Sort.by("name", "id");
+            case PRICE -> Sort.by("price", "id");
+        };
+    }
+
+    private static SweetCursor cursorOf(SweetSort sort, SweetResponse last) {
+        String key = switch (sort) {
+            case ID -> null;
+            case NAME -> last.name();
+            case PRICE -> last.price().toPlainString();
+        };
+        return new SweetCursor(sort, last.id(), key);
+    }
+
+    // Keyset predicate: (key > k) OR (key = k AND id > lastId), matching the ORDER BY of toSort
+    private Specification<Sweet> after(SweetCursor c) {
+        if (c == null) return null;
+        return switch (c.sort()) {
+            case ID -> (root, q, cb) -> cb.greaterThan(root.get("id"), c.lastId());
+            case NAME -> (root, q, cb) -> cb.or(
+                    cb.greaterThan(root.get("name"), c.lastKey()),
+                    cb.and(cb.equal(root.get("name"), c.lastKey()), cb.greaterThan(root.get("id"), c.lastId())));
+            case PRICE -> {
+                BigDecimal price = new BigDecimal(c.lastKey());
+                yield (root, q, cb) -> cb.or(
+                        cb.greaterThan(root.get("price"), price),
+                        cb.and(cb.equal(root.get("price"), price), cb.greaterThan(root.get("id"), c.lastId())));
+            }
+        };
+    }
+
     private Specification<Sweet> nameContains(String v) {
         if (v == null || v.isBlank()) return null;
+        Set<Long> ids = nameIndex.idsContaining(v);
+        if (ids != null) {
+            if (ids.isEmpty()) return (root, q, cb) -> cb.disjunction();
+            return (root, q, cb) -> root.get("id").in(ids);
+        }
         String pattern = "%" + v.toLowerCase() + "%";
         return (root, q, cb) -> cb.like(cb.lower(root.get("name")), pattern);
     }
     private Specification<Sweet> categoryEquals(String v) {
         if (v == null || v.isBlank()) return null;
+        // Bare column so the (category, id) index applies; the case-insensitive collation (MySQL's default, IGNORECASE
+        // on H2) makes it match the filter engine
         return (root, q, cb) -> cb.equal(root.get("category"), v);
     }
     private Specification<Sweet> priceMin(java.math.BigDecimal v) {
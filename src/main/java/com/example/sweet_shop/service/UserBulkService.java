@@ -0,0 +1,188 @@
+package com.example.sweet_shop.service;
+
+import com.example.sweet_shop.bulk.UserImportReader;
+import com.example.sweet_shop.config.BulkOperationProperties;
+import com.example.sweet_shop.domain.Role;
+import com.example.sweet_shop.domain.RoleName;
+import com.example.sweet_shop.dto.UserImportRowResult;
+import com.example.sweet_shop.dto.UserRegistrationRequest;
+import com.example.sweet_shop.repository.RoleRepository;
+import com.example.sweet_shop.repository.UserRepository;
+import com.example.sweet_shop.security.PasswordHasher;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Registers many users at once (corporate onboarding). Rows are processed in chunks of
+ * {@code app.sweets.bulk.chunk-size}: duplicates are found with one {@code IN} query per unique column,
+ * passwords are hashed across every hashing thread before the chunk's transaction opens, and
+ * {@code users} / {@code user_roles} are written as one JDBC batch plus one {@code INSERT ... SELECT}.
+ */
+@Service
+public class UserBulkService {
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordHasher passwordHasher;
+    private final Validator validator;
+    private final TransactionTemplate tx;
+    private final BulkOperationProperties props;
+    private final JdbcTemplate jdbcTemplate;
+    // Same zone Hibernate binds created_at in, see SweetBulkService
+    private final TimeZone jdbcTimeZone;
+    // Roles are seeded by migration and never change at runtime
+    private final Map<RoleName, Long> roleIds = new ConcurrentHashMap<>();
+
+    public UserBulkService(UserRepository userRepository, RoleRepository roleRepository, PasswordHasher passwordHasher,
+                           Validator validator, PlatformTransactionManager transactionManager,
+                           BulkOperationProperties props, JdbcTemplate jdbcTemplate,
+                           @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String jdbcTimeZone) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordHasher = passwordHasher;
+        this.validator = validator;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.props = props;
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcTimeZone = jdbcTimeZone.isBlank() ? TimeZone.getDefault() : TimeZone.getTimeZone(jdbcTimeZone);
+    }
+
+    /**
+     * Creates every valid row whose username and email are free, as {@code ROLE_USER}. Results are handed
+     * to {@code sink} one chunk at a time, in input order, as soon as the chunk is committed. A chunk that
+     * still hits a unique constraint (a concurrent registration) is retried row by row.
+     * <p>
+     * Past {@code max-rows} the import stops rather than failing, since earlier chunks are already committed and
+     * reported: the last result handed to {@code sink} is then a {@code TRUNCATED} marker for the first unread line.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public void provision(Iterator<UserImportReader.Row> rows, Consumer<List<UserImportRowResult>> sink) {
+        List<UserImportReader.Row> chunk = new ArrayList<>(props.getChunkSize());
+        int read = 0;
+        UserImportRowResult truncated = null;
+        while (rows.hasNext()) {
+            if (read++ == props.getMaxRows()) {
+                truncated = UserImportRowResult.truncated(rows.next().line(),
+                        "import stopped at " + props.getMaxRows() + " rows; this line and the rest were not read");
+                break;
+            }
+            chunk.add(rows.next());
+            if (chunk.size() == props.getChunkSize()) {
+                sink.accept(provisionChunk(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) sink.accept(provisionChunk(chunk));
+        if (truncated != null) sink.accept(List.of(truncated));
+    }
+
+    private List<UserImportRowResult> provisionChunk(List<UserImportReader.Row> chunk) {
+        // Outcome per position in the chunk; rows still null afterwards are the ones to insert
+        UserImportRowResult[] outcome = new UserImportRowResult[chunk.size()];
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            UserImportReader.Row row = chunk.get(i);
+            String error = row.error() != null ? row.error() : violations(row.request());
+            if (error != null) {
+                outcome[i] = UserImportRowResult.invalid(row.line(), row.username(), error);
+            } else if (!usernames.add(row.username())) {
+                outcome[i] = UserImportRowResult.duplicate(row.line(), row.username(), "duplicate username in import");
+            } else if (!emails.add(row.email())) {
+                usernames.remove(row.username());
+                outcome[i] = UserImportRowResult.duplicate(row.line(), row.username(), "duplicate email in import");
+            }
+        }
+        Set<String> takenUsernames = usernames.isEmpty() ? Set.of() : userRepository.findExistingUsernames(usernames);
+        Set<String> takenEmails = emails.isEmpty() ? Set.of() : userRepository.findExistingEmails(emails);
+        List<Integer> toInsert = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (outcome[i] != null) continue;
+            UserImportReader.Row row = chunk.get(i);
+            if (takenUsernames.contains(row.username())) {
+                outcome[i] = UserImportRowResult.duplicate(row.line(), row.username(), "username already exists");
+            } else if (takenEmails.contains(row.email())) {
+                outcome[i] = UserImportRowResult.duplicate(row.line(), row.username(), "email already exists");
+            } else {
+                toInsert.add(i);
+            }
+        }
+        if (!toInsert.isEmpty()) {
+            // Hashing is the expensive part and needs no connection, so it happens before the transaction
+            List<String> hashes = passwordHasher.encodeAll(toInsert.stream()
+                    .map(i -> chunk.get(i).request().password()).toList());
+            Map<Integer, String> hashByPosition = new HashMap<>();
+            for (int k = 0; k < toInsert.size(); k++) {
+                hashByPosition.put(toInsert.get(k), hashes.get(k));
+            }
+            try {
+                tx.executeWithoutResult(status -> insert(chunk, toInsert, hashByPosition, outcome));
+            } catch (DataIntegrityViolationException e) {
+                for (Integer i : toInsert) {
+                    try {
+                        tx.executeWithoutResult(status -> insert(chunk, List.of(i), hashByPosition, outcome));
+                    } catch (DataIntegrityViolationException rowFailure) {
+                        outcome[i] = UserImportRowResult.duplicate(chunk.get(i).line(), chunk.get(i).username(),
+                                "username or email already exists");
+                    }
+                }
+            }
+        }
+        return Arrays.asList(outcome);
+    }
+
+    private void insert(List<UserImportReader.Row> chunk, List<Integer> positions, Map<Integer, String> hashByPosition,
+                        UserImportRowResult[] outcome) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password_hash, created_at) VALUES (?, ?, ?, ?)",
+                positions, positions.size(), (ps, i) -> {
+                    UserRegistrationRequest r = chunk.get(i).request();
+                    ps.setString(1, r.username());
+                    ps.setString(2, r.email());
+                    ps.setString(3, hashByPosition.get(i));
+                    ps.setTimestamp(4, now, Calendar.getInstance(jdbcTimeZone));
+                });
+        List<Object> args = new ArrayList<>(positions.size() + 1);
+        args.add(roleId(RoleName.ROLE_USER));
+        for (Integer i : positions) args.add(chunk.get(i).username());
+        String placeholders = positions.stream().map(i -> "?").collect(Collectors.joining(", "));
+        // Only rows for brand-new user ids, which the cached user -> roles collections cannot hold yet
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) SELECT id, ? FROM users WHERE username IN ("
+                + placeholders + ")", args.toArray());
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, username FROM users WHERE username IN (" + placeholders + ")",
+                rs -> { ids.put(rs.getString(2), rs.getLong(1)); }, args.subList(1, args.size()).toArray());
+        for (Integer i : positions) {
+            UserImportReader.Row row = chunk.get(i);
+            outcome[i] = UserImportRowResult.created(row.line(), row.username(), ids.get(row.username()));
+        }
+    }
+
+    private Long roleId(RoleName name) {
+        return roleIds.computeIfAbsent(name, n -> roleRepository.findByName(n).map(Role::getId)
+                .orElseThrow(() -> new IllegalStateException(n + " not initialized")));
+    }
+
+    private String violations(UserRegistrationRequest request) {
+        Set<ConstraintViolation<UserRegistrationRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -4,11 +4,15 @@ import com.example.sweet_shop.domain.RoleName;
 import com.example.sweet_shop.domain.User;
 import com.example.sweet_shop.dto.UserRegistrationRequest;
 import com.example.sweet_shop.dto.UserResponse;
+import com.example.sweet_shop.error.NotFoundException;
 import com.example.sweet_shop.repository.RoleRepository;
 import com.example.sweet_shop.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.example.sweet_shop.security.PasswordHasher;
+import com.example.sweet_shop.security.UserSecurityVersionCache;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -18,15 +22,23 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final UserSecurityVersionCache securityVersionCache;
+    private final TransactionTemplate tx;
 
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordHasher passwordHasher,
+                       UserSecurityVersionCache securityVersionCache, PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.securityVersionCache = securityVersionCache;
+        this.tx = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
+    /**
+     * Hashes before the insert transaction starts, so no pooled connection waits on the hashing executor.
+     * Duplicates are rejected up front to avoid hashing for nothing; the unique constraints catch races.
+     */
     public UserResponse register(UserRegistrationRequest request) {
         if (userRepository.existsByUsername(request.username())) {
             throw new IllegalArgumentException("username already exists");
@@ -34,19 +46,34 @@ public class UserService {
         if (userRepository.existsByEmail(request.email())) {
             throw new IllegalArgumentException("email already exists");
         }
+        String passwordHash = passwordHasher.encode(request.password());
+
+        return tx.execute(status -> {
+            var roleUser = roleRepository.findByName(RoleName.ROLE_USER)
+                    .orElseThrow(() -> new IllegalStateException("ROLE_USER not initialized"));
 
-        var roleUser = roleRepository.findByName(RoleName.ROLE_USER)
-                .orElseThrow(() -> new IllegalStateException("ROLE_USER not initialized"));
+            var user = User.builder()
+                    .username(request.username())
+                    .email(request.email())
+                    .passwordHash(passwordHash)
+                    .build();
+            user.getRoles().add(roleUser);
 
-        var user = User.builder()
-                .username(request.username())
-                .email(request.email())
-                .passwordHash(passwordEncoder.encode(request.password()))
-                .build();
-        user.getRoles().add(roleUser);
+            var saved = userRepository.save(user);
+            return toResponse(saved);
+        });
+    }
 
-        var saved = userRepository.save(user);
-        return toResponse(saved);
+    /**
+     * Invalidates every token issued to the user so far. Exposed to admins as
+     * {@code POST /api/admin/users/{username}/revoke-tokens}; call it too after changing roles or disabling the account.
+     */
+    @Transactional
+    public void revokeTokens(String username) {
+        if (userRepository.incrementSecurityVersion(username) == 0) {
+            throw new NotFoundException("user not found");
+        }
+        securityVersionCache.evict(username);
     }
 
     private UserResponse toResponse(User user) {
@@ -0,0 +1,167 @@
+package com.example.sweet_shop.stream;
+
+import com.example.sweet_shop.config.SweetStreamProperties;
+import com.example.sweet_shop.dto.sweet.SweetChangeMessage;
+import com.example.sweet_shop.search.CatalogVersion;
+import com.example.sweet_shop.service.SweetChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans committed sweet changes out to Server-Sent Events subscribers.
+ * <p>
+ * Publishing never blocks on a client: every subscriber has a bounded queue, drained by its own virtual
+ * thread, so thousands of idle connections cost a parked virtual thread each and no request threads.
+ * When a slow consumer's queue is full its buffer is dropped and it receives a single {@code resync}
+ * event, telling it to refetch the catalog instead of replaying an unbounded backlog.
+ * <p>
+ * Each change carries the catalog version its own transaction produced, not whatever is current when it is sent.
+ * Only changes committed on this node are published: with several instances, a subscriber misses writes that
+ * landed elsewhere and should refetch on reconnect (or poll the list's ETag) if it needs every change.
+ * <p>
+ * Besides the global cap, a signed-in user may hold {@code max-subscribers-per-client} streams. Browsers'
+ * {@code EventSource} cannot send a bearer token, so most subscribers are anonymous; they are counted per client
+ * address (the forwarded one behind a trusted proxy) under the looser {@code max-subscribers-per-address}, which
+ * leaves room for visitors sharing a NAT.
+ */
+@Component
+public class SweetChangeBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(SweetChangeBroadcaster.class);
+    // Queue marker meaning "changes were dropped": compared by identity, never sent as a change
+    private static final SweetChangeMessage RESYNC = new SweetChangeMessage("RESYNC", null, null, null, -1);
+
+    private final SweetStreamProperties props;
+    private final CatalogVersion catalogVersion;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> perClient = new ConcurrentHashMap<>();
+
+    public SweetChangeBroadcaster(SweetStreamProperties props, CatalogVersion catalogVersion) {
+        this.props = props;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /** Opens a stream for {@code user}, or for the client {@code address} when the request is anonymous (null user). */
+    public SseEmitter subscribe(String user, String address) {
+        return subscribe(user, address, new SseEmitter(props.getTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(String user, String address, SseEmitter emitter) {
+        if (subscribers.size() >= props.getMaxSubscribers()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many stream subscribers");
+        }
+        String client = user != null ? "user:" + user : "addr:" + address;
+        int limit = user != null ? props.getMaxSubscribersPerClient() : props.getMaxSubscribersPerAddress();
+        boolean[] admitted = new boolean[1];
+        perClient.compute(client, (k, open) -> {
+            int count = open == null ? 0 : open;
+            if (count >= limit) return open;
+            admitted[0] = true;
+            return count + 1;
+        });
+        if (!admitted[0]) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "too many streams for this client");
+        }
+        Subscriber subscriber = new Subscriber(client, emitter, new ArrayBlockingQueue<>(props.getBufferSize()));
+        subscribers.add(subscriber);
+        emitter.onCompletion(subscriber::stop);
+        emitter.onTimeout(subscriber::stop);
+        emitter.onError(e -> subscriber.stop());
+        subscriber.thread = Thread.ofVirtual().name("sse-subscriber").start(subscriber::drain);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Order(CatalogVersion.AFTER_VERSION)
+    @TransactionalEventListener
+    public void onSweetChanged(SweetChangedEvent event) {
+        if (subscribers.isEmpty()) return;
+        // Bound when the transaction bumped the version, so a later commit's bump cannot leak into this change
+        Long produced = catalogVersion.produced();
+        SweetChangeMessage message = new SweetChangeMessage(event.type().name(), event.id(),
+                event.sweet() == null ? null : event.sweet().quantity(),
+                event.sweet() == null ? null : event.sweet().price(),
+                produced != null ? produced : catalogVersion.current());
+        for (Subscriber s : subscribers) {
+            s.offer(message);
+        }
+    }
+
+    private final class Subscriber {
+        private final String client;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SweetChangeMessage> queue;
+        private volatile boolean stopped;
+        private volatile Thread thread;
+
+        Subscriber(String client, SseEmitter emitter, BlockingQueue<SweetChangeMessage> queue) {
+            this.client = client;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        // Synchronized so no other publisher can refill the queue between the clear and the marker
+        synchronized void offer(SweetChangeMessage message) {
+            if (!queue.offer(message)) {
+                // Drop the backlog and leave a marker; a wake-up by interrupt would close the socket
+                queue.clear();
+                queue.offer(RESYNC);
+            }
+        }
+
+        void drain() {
+            try {
+                emitter.send(SseEmitter.event().name("ready").data(catalogVersion.current()));
+                while (!stopped) {
+                    SweetChangeMessage message;
+                    try {
+                        message = queue.poll(props.getHeartbeat().toMillis(), TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                    if (message == RESYNC) {
+                        emitter.send(SseEmitter.event().name("resync").data(catalogVersion.current()));
+                    } else if (message != null) {
+                        emitter.send(SseEmitter.event().name("change").id(Long.toString(message.version()))
+                                .data(message, MediaType.APPLICATION_JSON));
+                    } else {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                log.debug("SSE subscriber closed: {}", e.getMessage());
+                emitter.completeWithError(e);
+            } finally {
+                stop();
+            }
+        }
+
+        void stop() {
+            stopped = true;
+            if (subscribers.remove(this)) {
+                perClient.computeIfPresent(client, (k, open) -> open == 1 ? null : open - 1);
+            }
+            Thread t = thread;
+            if (t != null && t != Thread.currentThread()) t.interrupt();
+        }
+    }
+}
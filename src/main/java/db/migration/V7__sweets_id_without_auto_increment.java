@@ -0,0 +1,25 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+/**
+ * Sweet ids come only from id_generators (V4). AUTO_INCREMENT kept its own counter, so a row inserted without an id
+ * took a value the generator would later hand out again; without it such an insert fails instead. MySQL and H2 have
+ * no common statement for dropping the column's identity, hence a Java migration.
+ */
+public class V7__sweets_id_without_auto_increment extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        String product = context.getConnection().getMetaData().getDatabaseProductName();
+        String sql = "H2".equals(product)
+                ? "ALTER TABLE sweets ALTER COLUMN id DROP IDENTITY"
+                : "ALTER TABLE sweets MODIFY id BIGINT NOT NULL";
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
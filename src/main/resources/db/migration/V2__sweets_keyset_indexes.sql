@@ -0,0 +1,3 @@
+-- Composite indexes backing keyset pagination (sort key + id tie-breaker)
+CREATE INDEX idx_sweets_price_id ON sweets (price, id);
+CREATE INDEX idx_sweets_category_id ON sweets (category, id);
@@ -0,0 +1,2 @@
+-- Bumped whenever a user's roles or enabled flag change; tokens carry the version they were issued with
+ALTER TABLE users ADD COLUMN security_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,8 @@
+-- Pooled id allocation for sweets so Hibernate can batch inserts (IDENTITY forces one round trip per row).
+-- Each allocation reserves a block of ids; the row holds the first id of the next block.
+CREATE TABLE id_generators (
+    name VARCHAR(64) PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO id_generators (name, next_val) SELECT 'sweets', COALESCE(MAX(id), 0) + 1 FROM sweets;
@@ -0,0 +1,8 @@
+-- Written by the primary every heartbeat interval when read replicas are configured; a replica's copy of the row
+-- tells how far behind it is. Epoch millis of the writing node's clock, so no time zone is involved.
+CREATE TABLE replication_heartbeat (
+    id INT PRIMARY KEY,
+    beat_millis BIGINT NOT NULL
+);
+
+INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, 0);
@@ -0,0 +1,8 @@
+-- Catalog version shared by every node: each transaction that writes sweets bumps it once before committing, and
+-- nodes compare it with the version their cached search pages and list ETags were built under.
+CREATE TABLE catalog_version (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO catalog_version (id, version) VALUES (1, 0);
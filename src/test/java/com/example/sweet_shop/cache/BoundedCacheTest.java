@@ -0,0 +1,45 @@
+package com.example.sweet_shop.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    @DisplayName("least recently used entry is evicted once the cache is full")
+    void lruEviction() {
+        var cache = new BoundedCache<String, Integer>(2, Duration.ofMinutes(1));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertThat(cache.get("a")).isEqualTo(1);
+        cache.put("c", 3);
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(3);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("entries are not served past their deadline")
+    void deadline() {
+        var cache = new BoundedCache<String, Integer>(10, Duration.ofMinutes(1));
+        cache.put("gone", 1, System.currentTimeMillis() - 1);
+        assertThat(cache.get("gone")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("size 0 disables caching")
+    void disabled() {
+        var cache = new BoundedCache<String, Integer>(0, Duration.ofMinutes(1));
+        cache.put("a", 1);
+        assertThat(cache.get("a")).isNull();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.sweet_shop.cache;
+
+import com.example.sweet_shop.domain.Role;
+import com.example.sweet_shop.domain.RoleName;
+import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.dto.sweet.StockUpdateLine;
+import com.example.sweet_shop.jdbc.SqlStatementCounter;
+import com.example.sweet_shop.repository.RoleRepository;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetBulkService;
+import com.example.sweet_shop.service.SweetService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not @Transactional: the second-level cache is only written when transactions commit
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    SweetService sweetService;
+
+    @Autowired
+    SweetBulkService sweetBulkService;
+
+    @Autowired
+    SweetRepository sweetRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        sweetRepository.deleteAllById(created);
+        created.clear();
+    }
+
+    private Long create(String name, int quantity) {
+        Long id = sweetService.create(new CreateSweetRequest(name, "Cached", new BigDecimal("1.00"), quantity)).id();
+        created.add(id);
+        return id;
+    }
+
+    private double hitRatio(String region) {
+        return meterRegistry.get("hibernate.cache.hit.ratio").tag("region", region).gauge().value();
+    }
+
+    @Test
+    @DisplayName("a repeated lookup by id is answered without SQL")
+    void sweetById() {
+        Long id = create("Cached Caramel", 10);
+        sweetService.getById(id);
+
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            assertThat(sweetService.getById(id).name()).isEqualTo("Cached Caramel");
+            assertThat(sql.statements()).isZero();
+        }
+        assertThat(hitRatio(CacheRegions.SWEETS)).isGreaterThan(0);
+    }
+
+    @Test
+    @DisplayName("a purchase returns and caches the decremented stock")
+    void purchaseSeesOwnWrite() {
+        Long id = create("Cached Cola Bottle", 10);
+        sweetService.getById(id);
+
+        assertThat(sweetService.purchase(id, 1).quantity()).isEqualTo(9);
+        assertThat(sweetService.getById(id).quantity()).isEqualTo(9);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("plain-SQL stock updates evict the sweets they change")
+    void bulkStockUpdateEvicts() {
+        Long id = create("Cached Cinder Toffee", 10);
+        assertThat(sweetService.getById(id).quantity()).isEqualTo(10);
+
+        sweetBulkService.updateStock(List.of(new StockUpdateLine(id, 5, null)));
+
+        assertThat(sweetService.getById(id).quantity()).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("the role lookup done on registration comes from the query cache")
+    void roleByName() {
+        roleRepository.findByName(RoleName.ROLE_USER);
+
+        try (SqlStatementCounter.Scope sql = SqlStatementCounter.open()) {
+            Optional<Role> role = roleRepository.findByName(RoleName.ROLE_USER);
+            assertThat(role).map(Role::getName).contains(RoleName.ROLE_USER);
+            assertThat(sql.statements()).isZero();
+        }
+        assertThat(hitRatio(CacheRegions.ROLE_BY_NAME)).isGreaterThan(0);
+        assertThat(hitRatio(CacheRegions.ROLES)).isGreaterThan(0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.sweet_shop.config;
+
+import org.apache.catalina.connector.Connector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// A two-connection pool (Flyway needs both at startup) makes exhaustion easy to provoke; the profile itself is what's under test
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=250"
+})
+@ActiveProfiles({"test", "virtual-threads"})
+@AutoConfigureMockMvc
+class VirtualThreadModeTest {
+
+    @Autowired
+    ServletWebServerApplicationContext context;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    AsyncTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Tomcat handles requests on virtual threads")
+    void tomcatUsesVirtualThreads() throws Exception {
+        Connector connector = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+        Executor executor = connector.getProtocolHandler().getExecutor();
+        assertThat(runsOnVirtualThread(executor)).isTrue();
+    }
+
+    @Test
+    @DisplayName("@Async work runs on virtual threads")
+    void asyncExecutorUsesVirtualThreads() throws Exception {
+        assertThat(runsOnVirtualThread(applicationTaskExecutor)).isTrue();
+    }
+
+    @Test
+    @DisplayName("an exhausted connection pool answers 503 after the connection timeout")
+    void exhaustedPoolSheds() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            mockMvc.perform(get("/api/sweets").param("category", "PoolExhaustion"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(jsonPath("$.code").value("database_busy"));
+        }
+        mockMvc.perform(get("/api/sweets").param("category", "PoolExhaustion"))
+                .andExpect(status().isOk());
+    }
+
+    private static boolean runsOnVirtualThread(Executor executor) throws Exception {
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        executor.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+        return virtual.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.sweet_shop.controller;
+
+import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Not @Transactional: ETags follow committed writes, which a rolled-back test transaction never makes
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class SweetControllerEtagTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    SweetService sweetService;
+
+    @Autowired
+    SweetRepository sweetRepository;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        sweetRepository.deleteAllById(created);
+        created.clear();
+    }
+
+    private Long create(String name) {
+        Long id = sweetService.create(new CreateSweetRequest(name, "Etag", new BigDecimal("1.00"), 10)).id();
+        created.add(id);
+        return id;
+    }
+
+    @Test
+    @DisplayName("list answers 304 until a committed write changes the catalog version")
+    void listConditionalGet() throws Exception {
+        Long id = create("Etag Fudge");
+        String etag = mockMvc.perform(get("/api/sweets").param("category", "Etag"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/sweets").param("category", "Etag").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        // Same version, different query: different tag
+        mockMvc.perform(get("/api/sweets").param("category", "Other").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        sweetService.purchase(id, 1);
+        mockMvc.perform(get("/api/sweets").param("category", "Etag").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].quantity").value(9));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("item ETag follows updatedAt")
+    void itemConditionalGet() throws Exception {
+        Long id = create("Etag Toffee");
+        String etag = mockMvc.perform(get("/api/sweets/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/sweets/" + id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        sweetService.purchase(id, 1);
+        mockMvc.perform(get("/api/sweets/" + id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(9));
+        mockMvc.perform(get("/api/sweets/999999").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+    }
+}
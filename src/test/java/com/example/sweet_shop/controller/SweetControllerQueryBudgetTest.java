@@ -0,0 +1,168 @@
+package com.example.sweet_shop.controller;
+
+import com.example.sweet_shop.config.SqlInspectionProperties;
+import com.example.sweet_shop.dto.UserRegistrationRequest;
+import com.example.sweet_shop.dto.auth.LoginRequest;
+import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.jdbc.QueryBudget;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.repository.UserRepository;
+import com.example.sweet_shop.service.SweetService;
+import com.example.sweet_shop.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements per endpoint. A failure here means a change added queries to a hot path;
+ * raise the number only when the extra round trip is intended.
+ */
+// Not @Transactional: a test transaction would hold the connection and hide the per-request pattern.
+// The shared catalog version is re-read on a timer; pushed out here so list budgets do not depend on test timing.
+@SpringBootTest(properties = "app.sweets.search.version-check-interval=1h")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class SweetControllerQueryBudgetTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    SweetService sweetService;
+
+    @Autowired
+    SweetRepository sweetRepository;
+
+    @Autowired
+    SqlInspectionProperties sqlProps;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        userService.register(new UserRegistrationRequest("budget-user", "budget-user@example.com", "Password1!"));
+    }
+
+    @AfterEach
+    void cleanup() {
+        sweetRepository.deleteAllById(created);
+        created.clear();
+        userRepository.findByUsername("budget-user").ifPresent(userRepository::delete);
+    }
+
+    private Long create(String name, int quantity) {
+        Long id = sweetService.create(new CreateSweetRequest(name, "Budget", new BigDecimal("1.00"), quantity)).id();
+        created.add(id);
+        return id;
+    }
+
+    private String login() throws Exception {
+        var result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("budget-user", "Password1!"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    @Test
+    @DisplayName("login loads the user and its roles in one statement")
+    void loginBudget() throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("budget-user", "Password1!"))))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.statements(1));
+    }
+
+    @Test
+    @DisplayName("reads: one statement per list or batch, one for a conditional get by id")
+    void readBudgets() throws Exception {
+        String token = login();
+        Long id = create("Budget Toffee", 10);
+        Long other = create("Budget Fudge", 10);
+        // Warms the user's cached security version, which otherwise adds one statement
+        mockMvc.perform(get("/api/sweets/{id}", id).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        // Body and ETag both come from the second-level cache
+        mockMvc.perform(get("/api/sweets/{id}", id).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.statements(0));
+        mockMvc.perform(get("/api/sweets").param("category", "Budget"))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.statements(1))
+                .andExpect(QueryBudget.rowsAtMost(2));
+        mockMvc.perform(get("/api/sweets").param("ids", id + "," + other).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.statements(1));
+    }
+
+    @Test
+    @DisplayName("writes: a checkout locks all lines in one select and batches the updates")
+    void writeBudgets() throws Exception {
+        String token = login();
+        Long id = create("Budget Toffee", 10);
+        Long other = create("Budget Fudge", 10);
+        mockMvc.perform(get("/api/sweets/{id}", id).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/sweets/{id}/purchase", id).param("quantity", "1")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                // Decrement and reload, plus bumping and reading the shared catalog version once per transaction
+                .andExpect(QueryBudget.statements(4));
+        mockMvc.perform(post("/api/sweets/checkout").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lines\":[{\"sweetId\":" + id + ",\"quantity\":1},{\"sweetId\":" + other
+                                + ",\"quantity\":2}]}"))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.statements(5));
+    }
+
+    @Test
+    @DisplayName("a request over the statement budget is counted per route")
+    void overBudgetIsCounted() throws Exception {
+        // A write bumps the catalog version, so the list below misses the result cache
+        create("Budget Toffee", 1);
+        int budget = sqlProps.getStatementBudget();
+        sqlProps.setStatementBudget(0);
+        try {
+            mockMvc.perform(get("/api/sweets").param("category", "Budget")).andExpect(status().isOk());
+        } finally {
+            sqlProps.setStatementBudget(budget);
+        }
+        assertThat(meterRegistry.get("sql.request.over.budget")
+                .tags("uri", "/api/sweets", "limit", "statements").counter().count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get("sql.request.statements").tags("uri", "/api/sweets").summary().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+}
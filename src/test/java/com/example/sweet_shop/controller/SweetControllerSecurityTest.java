@@ -4,6 +4,7 @@ import com.example.sweet_shop.dto.UserRegistrationRequest;
 import com.example.sweet_shop.dto.auth.LoginRequest;
 import com.example.sweet_shop.repository.RoleRepository;
 import com.example.sweet_shop.repository.UserRepository;
+import com.example.sweet_shop.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -38,6 +39,9 @@ class SweetControllerSecurityTest {
     @Autowired
     RoleRepository roleRepository;
 
+    @Autowired
+    UserService userService;
+
     private String userToken;
     private String adminToken;
 
@@ -83,6 +87,33 @@ class SweetControllerSecurityTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("List is paged with a continuation cursor header")
+    void listIsPaged() throws Exception {
+        for (String n : new String[]{"Page A","Page B","Page C"}) {
+            mockMvc.perform(post("/api/sweets")
+                            .header("Authorization","Bearer "+userToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\""+n+"\",\"category\":\"Paged\",\"price\":1.00,\"quantity\":1}"))
+                    .andExpect(status().isCreated());
+        }
+        var first = mockMvc.perform(get("/api/sweets").param("category","Paged").param("size","2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+        mockMvc.perform(get("/api/sweets").param("category","Paged").param("size","2")
+                        .param("cursor", first.getResponse().getHeader("X-Next-Cursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Page C"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        mockMvc.perform(get("/api/sweets").param("cursor","not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("illegal_argument"));
+    }
+
     @Test
     @DisplayName("Create sweet requires auth")
     void createRequiresAuth() throws Exception {
@@ -167,6 +198,56 @@ class SweetControllerSecurityTest {
                 .andExpect(jsonPath("$.code").value("illegal_argument"));
     }
 
+    @Test
+    @DisplayName("Checkout buys a whole cart in one request")
+    void checkoutFlow() throws Exception {
+        var id = objectMapper.readTree(mockMvc.perform(post("/api/sweets")
+                        .header("Authorization","Bearer "+userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Cart Sweet\",\"category\":\"Snack\",\"price\":1.00,\"quantity\":4}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        var cart = "{\"lines\":[{\"sweetId\":"+id+",\"quantity\":3}]}";
+
+        mockMvc.perform(post("/api/sweets/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cart))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/api/sweets/checkout")
+                        .header("Authorization","Bearer "+userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cart))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].quantity").value(1));
+
+        mockMvc.perform(post("/api/sweets/checkout")
+                        .header("Authorization","Bearer "+userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lines\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("validation_failed"));
+    }
+
+    @Test
+    @DisplayName("Revoked tokens are rejected without waiting for expiry")
+    void revokedTokenRejected() throws Exception {
+        var payload = "{\"name\":\"Revoked\",\"category\":\"Cat\",\"price\":1.00,\"quantity\":1}";
+        userService.revokeTokens("user1");
+
+        mockMvc.perform(post("/api/sweets")
+                        .header("Authorization","Bearer "+userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/api/sweets")
+                        .header("Authorization","Bearer "+login("user1","Password1!"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isCreated());
+    }
+
     @Test
     @DisplayName("Validation error returns structured response")
     void validationErrors() throws Exception {
@@ -178,4 +259,72 @@ class SweetControllerSecurityTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.code").value("validation_failed"));
     }
+
+    @Test
+    @DisplayName("bulk import is admin only and reports per-row outcomes")
+    void bulkImport() throws Exception {
+        String body = "name,category,price,quantity\nImport One,Bulk,1.00,3\nImport One,Bulk,1.00,3\n";
+        mockMvc.perform(post("/api/sweets/import").param("format", "csv")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType("text/csv").content(body))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/sweets/import").param("format", "csv")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType("text/csv").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.rows[0].line").value(2))
+                .andExpect(jsonPath("$.rows[1].status").value("DUPLICATE"));
+    }
+
+    @Test
+    @DisplayName("bulk restock is admin only")
+    void bulkRestockRequiresAdmin() throws Exception {
+        String body = "{\"rows\":[{\"sweetId\":1,\"quantityDelta\":5}]}";
+        mockMvc.perform(post("/api/sweets/restock")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/sweets/restock")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"rows\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("multi-get returns found sweets and missing ids in one call")
+    void multiGet() throws Exception {
+        var id = objectMapper.readTree(mockMvc.perform(post("/api/sweets")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Multi Get\",\"category\":\"Batch\",\"price\":1.00,\"quantity\":2}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        mockMvc.perform(get("/api/sweets").param("ids", id + ",987654"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Multi Get"))
+                .andExpect(jsonPath("$.missing[0]").value(987654));
+        mockMvc.perform(get("/api/sweets").param("ids", "x"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("single, multi and list reads share one policy: public, while other GETs still need a token")
+    void catalogReadsArePublic() throws Exception {
+        var id = objectMapper.readTree(mockMvc.perform(post("/api/sweets")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Public Read\",\"category\":\"Open\",\"price\":1.00,\"quantity\":2}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        mockMvc.perform(get("/api/sweets/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Public Read"));
+        mockMvc.perform(get("/api/sweets").param("ids", String.valueOf(id)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Public Read"));
+        mockMvc.perform(get("/api/sweets/export"))
+                .andExpect(status().isUnauthorized());
+    }
 }
@@ -0,0 +1,102 @@
+package com.example.sweet_shop.controller;
+
+import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Not @Transactional: the export streams on another thread, which cannot see uncommitted test data
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class SweetExportControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    SweetService sweetService;
+
+    @Autowired
+    SweetRepository sweetRepository;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        sweetRepository.deleteAllById(created);
+        created.clear();
+    }
+
+    private void create(String name, String category, String price) {
+        created.add(sweetService.create(new CreateSweetRequest(name, category, new BigDecimal(price), 3)).id());
+    }
+
+    private String export(String format, String category) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/sweets/export").param("format", format).param("category", category))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("NDJSON export writes one object per line, filtered and in id order")
+    void ndjson() throws Exception {
+        create("Export Fudge", "Export", "2.00");
+        create("Export Toffee", "Export", "3.50");
+        create("Other Sweet", "Elsewhere", "1.00");
+
+        String[] lines = export("ndjson", "Export").split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"name\":\"Export Fudge\"");
+        assertThat(lines[1]).contains("\"name\":\"Export Toffee\"").contains("\"price\":3.5");
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("CSV export has a header and quotes awkward fields")
+    void csv() throws Exception {
+        create("Fudge, \"Deluxe\"", "ExportCsv", "4.25");
+
+        String[] lines = export("csv", "ExportCsv").split("\n");
+
+        assertThat(lines[0]).isEqualTo("id,name,category,price,quantity,createdAt,updatedAt");
+        assertThat(lines[1]).contains(",\"Fudge, \"\"Deluxe\"\"\",ExportCsv,4.25,3,");
+    }
+
+    @Test
+    @DisplayName("export requires authentication")
+    void guarded() throws Exception {
+        mockMvc.perform(get("/api/sweets/export")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("unknown formats are rejected before streaming starts")
+    void unknownFormat() throws Exception {
+        mockMvc.perform(get("/api/sweets/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
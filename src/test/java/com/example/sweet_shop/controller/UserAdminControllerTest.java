@@ -0,0 +1,91 @@
+package com.example.sweet_shop.controller;
+
+import com.example.sweet_shop.domain.User;
+import com.example.sweet_shop.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Not @Transactional: the import streams on another thread, which commits its own chunks
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class UserAdminControllerTest {
+
+    private static final String BODY = """
+            {"username":"bulk-one","email":"bulk-one@example.com","password":"Password1"}
+            {"username":"bulk-two","email":"bad","password":"Password1"}
+            """;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @AfterEach
+    void cleanup() {
+        userRepository.findByUsername("bulk-one").ifPresent(userRepository::delete);
+        userRepository.findByUsername("revoke-me").ifPresent(userRepository::delete);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("admin import streams one NDJSON result line per input line")
+    void adminImport() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/admin/users/import").content(BODY))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"line\":1").contains("\"status\":\"CREATED\"");
+        assertThat(lines[1]).contains("\"line\":2").contains("\"status\":\"INVALID\"");
+        assertThat(userRepository.existsByUsername("bulk-one")).isTrue();
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("non-admins cannot bulk import users")
+    void userForbidden() throws Exception {
+        mockMvc.perform(post("/api/admin/users/import").content(BODY))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("admins can revoke every token of a user")
+    void revokeTokens() throws Exception {
+        User user = userRepository.save(User.builder().username("revoke-me").email("revoke-me@example.com").passwordHash("x").build());
+        int before = user.getSecurityVersion();
+
+        mockMvc.perform(post("/api/admin/users/revoke-me/revoke-tokens"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/admin/users/nobody-here/revoke-tokens"))
+                .andExpect(status().isNotFound());
+
+        assertThat(userRepository.findByUsername("revoke-me").orElseThrow().getSecurityVersion()).isEqualTo(before + 1);
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("non-admins cannot revoke tokens")
+    void revokeForbidden() throws Exception {
+        mockMvc.perform(post("/api/admin/users/user1/revoke-tokens"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.sweet_shop.jdbc;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc matchers over the SQL counted for a request by {@link QueryBudgetFilter}, e.g.
+ * {@code .andExpect(QueryBudget.statements(1))}. Pinning an endpoint's count makes an added query fail the build.
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    public static ResultMatcher statements(long expected) {
+        return result -> assertThat(counts(result).statements()).as("SQL statements").isEqualTo(expected);
+    }
+
+    public static ResultMatcher statementsAtMost(long max) {
+        return result -> assertThat(counts(result).statements()).as("SQL statements").isLessThanOrEqualTo(max);
+    }
+
+    public static ResultMatcher rowsAtMost(long max) {
+        return result -> assertThat(counts(result).rows()).as("rows read").isLessThanOrEqualTo(max);
+    }
+
+    public static SqlStatementCounter.Scope counts(MvcResult result) {
+        Object counts = result.getRequest().getAttribute(QueryBudgetFilter.COUNTS_ATTRIBUTE);
+        assertThat(counts).as("query counts on the request; is app.sql.inspection.enabled on?")
+                .isInstanceOf(SqlStatementCounter.Scope.class);
+        return (SqlStatementCounter.Scope) counts;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.sweet_shop.jfr;
+
+import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import com.example.sweet_shop.dto.sweet.SweetSort;
+import com.example.sweet_shop.error.InsufficientStockException;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class JfrRecordingEndpointTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    SweetService sweetService;
+
+    @Autowired
+    SweetRepository sweetRepository;
+
+    @Autowired
+    JfrRecordingEndpoint endpoint;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        endpoint.close();
+        sweetRepository.deleteAllById(created);
+        created.clear();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("a recording started over HTTP captures the purchase and search events")
+    void recordsApplicationEvents() throws Exception {
+        mockMvc.perform(post("/actuator/jfr").contentType(MediaType.APPLICATION_JSON).content("{\"duration\":\"1m\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+        mockMvc.perform(post("/actuator/jfr").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isConflict());
+
+        Long id = sweetService.create(new CreateSweetRequest("Jfr Jelly", "Jfr", new BigDecimal("1.00"), 1)).id();
+        created.add(id);
+        sweetService.purchase(id, 1);
+        assertThatThrownBy(() -> sweetService.purchase(id, 1)).isInstanceOf(InsufficientStockException.class);
+        sweetService.searchPage(new SweetSearchCriteria(null, "Jfr", null, null), SweetSort.ID, null, 10);
+
+        mockMvc.perform(delete("/actuator/jfr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("STOPPED"));
+        byte[] bytes = mockMvc.perform(get("/actuator/jfr/recording"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Path file = Files.createTempFile("jfr-test-", ".jfr");
+        try {
+            Files.write(file, bytes);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            List<RecordedEvent> purchases = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("sweetshop.SweetPurchase"))
+                    .filter(e -> e.getLong("sweetId") == id)
+                    .toList();
+            assertThat(purchases).extracting(e -> e.getString("outcome"))
+                    .containsExactlyInAnyOrder("ok", "insufficient_stock");
+            assertThat(events).anySatisfy(e -> {
+                assertThat(e.getEventType().getName()).isEqualTo("sweetshop.SweetSearch");
+                assertThat(e.getString("criteria")).isEqualTo("category");
+                assertThat(e.getInt("rows")).isEqualTo(1);
+            });
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("durations beyond the cap and unknown settings are rejected")
+    void rejectsUnboundedRecordings() throws Exception {
+        mockMvc.perform(post("/actuator/jfr").contentType(MediaType.APPLICATION_JSON).content("{\"duration\":\"2h\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/actuator/jfr").contentType(MediaType.APPLICATION_JSON).content("{\"settings\":\"nope\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/actuator/jfr/recording")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("non-admins cannot start recordings")
+    void userForbidden() throws Exception {
+        mockMvc.perform(post("/actuator/jfr").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.sweet_shop.metrics;
+
+import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.error.InsufficientStockException;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Observability auto-configuration is off in tests by default; the Prometheus registry is what's under test
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    SweetService sweetService;
+
+    @Autowired
+    SweetRepository sweetRepository;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        sweetRepository.deleteAllById(created);
+        created.clear();
+    }
+
+    private String scrape() throws Exception {
+        return mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("service calls are timed with histogram buckets and tagged by outcome")
+    void serviceOutcomes() throws Exception {
+        Long id = sweetService.create(new CreateSweetRequest("Metric Mint", "Metrics", new BigDecimal("1.00"), 1)).id();
+        created.add(id);
+        mockMvc.perform(get("/api/sweets/{id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+        assertThatThrownBy(() -> sweetService.purchase(id, 5)).isInstanceOf(InsufficientStockException.class);
+
+        String body = scrape();
+
+        assertThat(body).contains("sweets_service_seconds_bucket{");
+        assertThat(body).containsPattern("sweets_service_seconds_count\\{[^}]*method=\"create\",outcome=\"ok\"");
+        assertThat(body).containsPattern("sweets_service_seconds_count\\{[^}]*method=\"getById\",outcome=\"not_found\"");
+        assertThat(body).containsPattern(
+                "sweets_service_seconds_count\\{[^}]*method=\"purchase\",outcome=\"insufficient_stock\"");
+        assertThat(body).containsPattern("sweets_service_seconds_bucket\\{[^}]*le=\"0\\.1\"");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("pool wait, token checks and Hibernate statistics are exported")
+    void infrastructureMeters() throws Exception {
+        mockMvc.perform(get("/api/sweets/{id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+
+        String body = scrape();
+
+        assertThat(body).contains("hikaricp_connections_acquire_seconds_bucket{");
+        assertThat(body).contains("auth_jwt_verify_seconds_count{");
+        assertThat(body).contains("auth_password_hash_seconds_bucket{");
+        assertThat(body).contains("hibernate_query_executions_total{");
+        assertThat(body).contains("hibernate_flushes_total{");
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("the scrape endpoint is admin-only by default")
+    void scrapeRequiresAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.sweet_shop.routing;
+
+import com.example.sweet_shop.domain.Sweet;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import com.example.sweet_shop.dto.sweet.SweetSort;
+import com.example.sweet_shop.error.NotFoundException;
+import com.example.sweet_shop.service.SweetService;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two unconnected H2 databases stand in for primary and replica, so "replication" is whatever the test writes
+ * to the replica itself, heartbeat included. Rows present on only one side show where a read went.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.routing.enabled=true",
+        "app.datasource.routing.max-lag=2s",
+        // Rounds are driven by the test through refresh()
+        "app.datasource.routing.heartbeat-interval=1h",
+        "app.datasource.routing.sticky-window=1m"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ReadWriteRoutingTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:sweetshop-replica;DB_CLOSE_DELAY=-1;MODE=MySQL;IGNORECASE=TRUE";
+    private static final long ID = 900_001L;
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").locations("classpath:db/migration").load().migrate();
+        // Indexed list entries bind from a single property source, so the whole replica is declared here
+        registry.add("app.datasource.routing.replicas[0].name", () -> "r1");
+        registry.add("app.datasource.routing.replicas[0].url", () -> REPLICA_URL);
+        registry.add("app.datasource.routing.replicas[0].username", () -> "sa");
+    }
+
+    @Autowired
+    SweetService sweetService;
+
+    @Autowired
+    ReplicaRouter router;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    private JdbcTemplate primary;
+
+    @BeforeEach
+    void setup() {
+        primary = new JdbcTemplate(dataSource);
+        // The fixed ids bypass id_generators, so move it past them before the application allocates any
+        primary.update("UPDATE id_generators SET next_val = GREATEST(next_val, ?) WHERE name = 'sweets'", ID + 2);
+        insert(primary, 10);
+        insert(replica, 10);
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+        primary.update("DELETE FROM sweets WHERE id = ?", ID);
+        replica.update("DELETE FROM sweets WHERE id = ?", ID);
+        replica.update("DELETE FROM sweets WHERE id = ?", ID + 1);
+        // Rows came and went behind Hibernate's back
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    private static void insert(JdbcTemplate db, int quantity) {
+        db.update("INSERT INTO sweets (id, name, category, price, quantity) VALUES (?, 'Routed Rock', 'Routing', 1.00, ?)",
+                ID, quantity);
+    }
+
+    // Simulates replication state: a heartbeat ahead of the primary's means caught up, zero means far behind
+    private void replicaCaughtUp(boolean caughtUp) {
+        replica.update("UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1",
+                caughtUp ? Long.MAX_VALUE : 0L);
+        router.refresh();
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+    }
+
+    @Test
+    @DisplayName("read-only transactions go to a caught-up replica, writes to the primary")
+    void readsUseReplica() {
+        replicaCaughtUp(true);
+        replica.update("INSERT INTO sweets (id, name, category, price, quantity) VALUES (?, 'Replica Only', 'Routing', 1.00, 1)",
+                ID + 1);
+
+        assertThat(sweetService.getById(ID + 1).name()).isEqualTo("Replica Only");
+
+        sweetService.purchase(ID, 3);
+        assertThat(primary.queryForObject("SELECT quantity FROM sweets WHERE id = ?", Integer.class, ID)).isEqualTo(7);
+        assertThat(replica.queryForObject("SELECT quantity FROM sweets WHERE id = ?", Integer.class, ID)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("list pages read from the database go to a caught-up replica")
+    void listReadsUseReplica() {
+        replicaCaughtUp(true);
+        replica.update("INSERT INTO sweets (id, name, category, price, quantity) VALUES (?, 'Replica Only', 'Routing', 1.00, 1)",
+                ID + 1);
+
+        // Name order skips the in-memory filter engine, which only ever reflects the primary
+        var page = sweetService.searchPage(new SweetSearchCriteria(null, "Routing", null, null), SweetSort.NAME, null, 10);
+        assertThat(page.items()).extracting(SweetResponse::name).containsExactly("Replica Only", "Routed Rock");
+        assertThat(page.fromReplica()).isTrue();
+    }
+
+    @Test
+    @DisplayName("list pages read from a replica are neither cached nor tagged")
+    void replicaPagesNotCachedOrTagged() throws Exception {
+        replicaCaughtUp(true);
+        replica.update("INSERT INTO sweets (id, name, category, price, quantity) VALUES (?, 'Replica Only', 'Routing', 1.00, 1)",
+                ID + 1);
+        mockMvc.perform(get("/api/sweets").param("category", "Routing").param("sort", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        // Same query and catalog version: a cached replica page would still list the replica-only row
+        replicaCaughtUp(false);
+        mockMvc.perform(get("/api/sweets").param("category", "Routing").param("sort", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @DisplayName("a replica behind by more than max-lag is skipped until it catches up")
+    void laggingReplicaFallsBack() {
+        replica.update("INSERT INTO sweets (id, name, category, price, quantity) VALUES (?, 'Replica Only', 'Routing', 1.00, 1)",
+                ID + 1);
+        replicaCaughtUp(false);
+        assertThatThrownBy(() -> sweetService.getById(ID + 1)).isInstanceOf(NotFoundException.class);
+
+        replicaCaughtUp(true);
+        assertThat(sweetService.getById(ID + 1).name()).isEqualTo("Replica Only");
+    }
+
+    @Test
+    @DisplayName("after a purchase the buyer reads from the primary while others still see the replica")
+    void readYourWrites() {
+        replicaCaughtUp(true);
+        signIn("routing-buyer");
+        sweetService.purchase(ID, 4);
+
+        assertThat(sweetService.getById(ID).quantity()).isEqualTo(6);
+
+        // That primary read filled the shared second-level cache; drop it to see where the next read goes
+        entityManagerFactory.getCache().evict(Sweet.class, ID);
+        signIn("routing-other");
+        assertThat(sweetService.getById(ID).quantity()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("rows read from a replica are not put into the second-level cache")
+    void replicaReadsNotCached() {
+        replicaCaughtUp(true);
+        assertThat(sweetService.getById(ID).quantity()).isEqualTo(10);
+        assertThat(entityManagerFactory.getCache().contains(Sweet.class, ID)).isFalse();
+
+        replicaCaughtUp(false);
+        assertThat(sweetService.getById(ID).quantity()).isEqualTo(10);
+        assertThat(entityManagerFactory.getCache().contains(Sweet.class, ID)).isTrue();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.sweet_shop.search;
+
+import com.example.sweet_shop.config.CatalogSearchProperties;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogFilterEngineTest {
+
+    private static final Instant T = Instant.parse("2025-01-01T10:15:30.123456Z");
+
+    private SweetRepository repository;
+    private CatalogSearchProperties props;
+    private SweetNameIndex nameIndex;
+    private CatalogFilterEngine engine;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(SweetRepository.class);
+        nameIndex = mock(SweetNameIndex.class);
+        props = new CatalogSearchProperties();
+        props.setFilterEngineEnabled(true);
+        engine = new CatalogFilterEngine(repository, nameIndex, props);
+        when(repository.streamResponses()).thenReturn(Stream.of(
+                sweet(1L, "Chocolate Bar", "Chocolate", "2.50"),
+                sweet(2L, "Dark Chocolate", "Chocolate", "4.00"),
+                sweet(3L, "Vanilla Fudge", "Fudge", "3.25"),
+                sweet(4L, "Gummy Bears", "Gummies", "1.00")));
+    }
+
+    private static SweetResponse sweet(Long id, String name, String category, String price) {
+        return new SweetResponse(id, name, category, new BigDecimal(price), 10, T, T);
+    }
+
+    private static List<Long> ids(List<SweetResponse> rows) {
+        return rows.stream().map(SweetResponse::id).toList();
+    }
+
+    private static SweetSearchCriteria criteria(String name, String category, String min, String max) {
+        return new SweetSearchCriteria(name, category,
+                min == null ? null : new BigDecimal(min), max == null ? null : new BigDecimal(max));
+    }
+
+    @Test
+    @DisplayName("engine declines until built and when disabled")
+    void coldOrDisabled() {
+        assertThat(engine.find(criteria(null, null, null, null), null, 10)).isNull();
+        engine.rebuild();
+        props.setFilterEngineEnabled(false);
+        assertThat(engine.find(criteria(null, null, null, null), null, 10)).isNull();
+    }
+
+    @Test
+    @DisplayName("category and price range intersect, in id order, with cursor and limit")
+    void combinedCriteria() {
+        engine.rebuild();
+        assertThat(ids(engine.find(criteria(null, "Chocolate", null, null), null, 10))).containsExactly(1L, 2L);
+        assertThat(ids(engine.find(criteria(null, null, "2.5", "3.25"), null, 10))).containsExactly(1L, 3L);
+        assertThat(ids(engine.find(criteria(null, "Chocolate", "3", null), null, 10))).containsExactly(2L);
+        assertThat(engine.find(criteria(null, "Toffee", null, null), null, 10)).isEmpty();
+        assertThat(ids(engine.find(criteria(null, null, null, null), 1L, 2))).containsExactly(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("rows are hydrated exactly from the columns")
+    void hydration() {
+        engine.rebuild();
+        assertThat(engine.find(criteria(null, "Fudge", null, null), null, 10))
+                .containsExactly(sweet(3L, "Vanilla Fudge", "Fudge", "3.25"));
+    }
+
+    @Test
+    @DisplayName("name filters use the trigram index, or scan when it defers")
+    void nameFilter() {
+        engine.rebuild();
+        when(nameIndex.idsContaining("choc")).thenReturn(Set.of(1L, 2L));
+        assertThat(ids(engine.find(criteria("choc", null, null, "3"), null, 10))).containsExactly(1L);
+        when(nameIndex.idsContaining("ar")).thenReturn(null);
+        assertThat(ids(engine.find(criteria("ar", null, null, null), null, 10))).containsExactly(1L, 2L, 4L);
+    }
+
+    @Test
+    @DisplayName("price changes, moves, deletes and out-of-order inserts stay correct across compaction")
+    void incrementalMaintenance() {
+        props.setFilterEngineCompactThreshold(1);
+        engine.rebuild();
+        engine.onSweetChanged(SweetChangedEvent.of(SweetChangedEvent.Type.UPDATED, sweet(4L, "Gummy Bears", "Chocolate", "9.00")));
+        assertThat(ids(engine.find(criteria(null, "Chocolate", "5", null), null, 10))).containsExactly(4L);
+        assertThat(engine.find(criteria(null, "Gummies", null, null), null, 10)).isEmpty();
+
+        engine.onSweetChanged(SweetChangedEvent.of(SweetChangedEvent.Type.CREATED, sweet(10L, "Toffee", "Toffee", "0.75")));
+        engine.onSweetChanged(SweetChangedEvent.of(SweetChangedEvent.Type.CREATED, sweet(7L, "Nougat", "Toffee", "0.80")));
+        assertThat(ids(engine.find(criteria(null, null, null, "1"), null, 10))).containsExactly(7L, 10L);
+
+        engine.onSweetChanged(SweetChangedEvent.deleted(2L));
+        assertThat(ids(engine.find(criteria(null, "Chocolate", null, null), null, 10))).containsExactly(1L, 4L);
+    }
+
+    @Test
+    @DisplayName("categories match regardless of case and keep each row's own spelling")
+    void categoryCase() {
+        engine.rebuild();
+        engine.onSweetChanged(SweetChangedEvent.of(SweetChangedEvent.Type.CREATED, sweet(8L, "Dark Bar", "chocolate", "4.00")));
+        assertThat(engine.find(criteria(null, "CHOCOLATE", null, null), null, 10))
+                .extracting(SweetResponse::id, SweetResponse::category)
+                .containsExactly(tuple(1L, "Chocolate"), tuple(2L, "Chocolate"), tuple(8L, "chocolate"));
+    }
+
+    @Test
+    @DisplayName("out-of-order inserts are merged into id order and cursors without compacting")
+    void outOfOrderWithoutCompaction() {
+        engine.rebuild();
+        engine.onSweetChanged(SweetChangedEvent.of(SweetChangedEvent.Type.CREATED, sweet(10L, "Toffee", "Toffee", "0.75")));
+        engine.onSweetChanged(SweetChangedEvent.of(SweetChangedEvent.Type.CREATED, sweet(7L, "Nougat", "Toffee", "0.80")));
+        engine.onSweetChanged(SweetChangedEvent.of(SweetChangedEvent.Type.CREATED, sweet(6L, "Brittle", "Toffee", "0.90")));
+        engine.onSweetChanged(SweetChangedEvent.of(SweetChangedEvent.Type.CREATED, sweet(12L, "Fudge Bar", "Toffee", "0.95")));
+        assertThat(ids(engine.find(criteria(null, "Toffee", null, null), null, 10))).containsExactly(6L, 7L, 10L, 12L);
+        assertThat(ids(engine.find(criteria(null, null, null, null), 4L, 3))).containsExactly(6L, 7L, 10L);
+        assertThat(ids(engine.find(criteria(null, null, null, null), 7L, 10))).containsExactly(10L, 12L);
+    }
+}
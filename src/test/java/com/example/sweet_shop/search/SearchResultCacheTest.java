@@ -0,0 +1,156 @@
+package com.example.sweet_shop.search;
+
+import com.example.sweet_shop.config.CatalogSearchProperties;
+import com.example.sweet_shop.dto.sweet.SweetPage;
+import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import com.example.sweet_shop.dto.sweet.SweetSort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchResultCacheTest {
+
+    private CatalogSearchProperties props;
+    private CatalogVersion version;
+    private SearchResultCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+    // The shared catalog_version row
+    private final AtomicLong stored = new AtomicLong();
+    private final List<Object> published = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        props = new CatalogSearchProperties();
+        props.setVersionCheckInterval(Duration.ofHours(1));
+        version = new CatalogVersion(mockedRow(), published::add, props);
+        cache = new SearchResultCache(props, version);
+    }
+
+    private JdbcTemplate mockedRow() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenAnswer(inv -> stored.get());
+        when(jdbcTemplate.update(anyString())).thenAnswer(inv -> {
+            stored.incrementAndGet();
+            return 1;
+        });
+        return jdbcTemplate;
+    }
+
+    private SweetPage load() {
+        loads.incrementAndGet();
+        return new SweetPage(List.of(), null);
+    }
+
+    private SweetPage get(SweetSearchCriteria c) {
+        return cache.get(c.normalized(), SweetSort.ID, null, 50, this::load);
+    }
+
+    @Test
+    @DisplayName("equivalent criteria share one entry after normalization")
+    void normalizedKeys() {
+        get(new SweetSearchCriteria("  Choc ", " Bars", new BigDecimal("10.00"), null));
+        get(new SweetSearchCriteria("choc", "Bars", new BigDecimal("10"), null));
+        get(new SweetSearchCriteria("choc", "Bars", new BigDecimal("10"), new BigDecimal("20")));
+        assertThat(loads).hasValue(2);
+        assertThat(new SweetSearchCriteria(" ", "", null, null).normalized())
+                .isEqualTo(new SweetSearchCriteria(null, null, null, null));
+    }
+
+    @Test
+    @DisplayName("a committed write bumps the version and invalidates cached pages")
+    void versionInvalidates() {
+        SweetSearchCriteria c = new SweetSearchCriteria(null, null, null, null);
+        get(c);
+        get(c);
+        assertThat(loads).hasValue(1);
+        stored.incrementAndGet();
+        version.onSweetChanged(null);
+        get(c);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("another node's write invalidates cached pages at the next version check")
+    void sharedVersionInvalidates() {
+        props.setVersionCheckInterval(Duration.ZERO);
+        version = new CatalogVersion(mockedRow(), published::add, props);
+        cache = new SearchResultCache(props, version);
+        SweetSearchCriteria c = new SweetSearchCriteria(null, null, null, null);
+        get(c);
+        get(c);
+        assertThat(loads).hasValue(1);
+        // Bumped by some other node; nothing was published here
+        stored.incrementAndGet();
+        get(c);
+        assertThat(loads).hasValue(2);
+        assertThat(published).containsExactly(new CatalogVersion.RemoteChange(1));
+    }
+
+    @Test
+    @DisplayName("only versions this node did not produce are reported as remote changes")
+    void localBumpsAreNotRemote() {
+        props.setVersionCheckInterval(Duration.ZERO);
+        version = new CatalogVersion(mockedRow(), published::add, props);
+        version.current();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            version.bump(null);
+            version.onSweetChanged(null);
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(version.current()).isEqualTo(1);
+        assertThat(published).isEmpty();
+
+        // Another node's bump on top of ours
+        stored.incrementAndGet();
+        assertThat(version.current()).isEqualTo(2);
+        assertThat(published).containsExactly(new CatalogVersion.RemoteChange(2));
+    }
+
+    @Test
+    @DisplayName("pages read from a replica are not cached")
+    void replicaPagesNotCached() {
+        SweetSearchCriteria c = new SweetSearchCriteria(null, "Lagging", null, null);
+        for (int i = 0; i < 2; i++) {
+            cache.get(c.normalized(), SweetSort.ID, null, 50, () -> {
+                loads.incrementAndGet();
+                return new SweetPage(List.of(), null, true);
+            });
+        }
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("hits, misses and size are published as meters")
+    void metrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        SweetSearchCriteria c = new SweetSearchCriteria(null, "Bars", null, null);
+        get(c);
+        get(c);
+        assertThat(registry.get("sweets.search.cache.hits").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("sweets.search.cache.misses").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("sweets.search.cache.size").gauge().value()).isEqualTo(1);
+    }
+}
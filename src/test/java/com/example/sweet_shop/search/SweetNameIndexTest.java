@@ -0,0 +1,102 @@
+package com.example.sweet_shop.search;
+
+import com.example.sweet_shop.config.CatalogSearchProperties;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import com.example.sweet_shop.repository.SweetNameView;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SweetNameIndexTest {
+
+    private SweetRepository repository;
+    private CatalogSearchProperties props;
+    private SweetNameIndex index;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(SweetRepository.class);
+        props = new CatalogSearchProperties();
+        index = new SweetNameIndex(repository, props);
+        when(repository.streamNames()).thenReturn(Stream.of(
+                view(1L, "Chocolate Bar"), view(2L, "Dark Chocolate"), view(3L, "Vanilla Fudge")));
+    }
+
+    private static SweetNameView view(Long id, String name) {
+        return new SweetNameView() {
+            public Long getId() { return id; }
+            public String getName() { return name; }
+        };
+    }
+
+    private static SweetChangedEvent event(SweetChangedEvent.Type type, Long id, String name) {
+        return SweetChangedEvent.of(type, new SweetResponse(id, name, "Cat", BigDecimal.ONE, 1, null, null));
+    }
+
+    @Test
+    @DisplayName("index stays cold until built, then answers case-insensitive substrings")
+    void coldThenReady() {
+        assertThat(index.idsContaining("choc")).isNull();
+        index.rebuild();
+        assertThat(index.idsContaining("CHOC")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.idsContaining("fudge")).containsExactly(3L);
+        assertThat(index.idsContaining("xyz")).isEmpty();
+        assertThat(index.idsContaining("ch")).isNull();
+    }
+
+    @Test
+    @DisplayName("trigram hits are confirmed against the full name")
+    void confirmsSubstring() {
+        index.rebuild();
+        // both trigrams "lat" and "ate" occur in "Chocolate" but "late bar" does not occur in "Dark Chocolate"
+        assertThat(index.idsContaining("late bar")).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("create, rename and delete events keep the index current")
+    void incrementalMaintenance() {
+        index.rebuild();
+        index.onSweetChanged(event(SweetChangedEvent.Type.CREATED, 4L, "Milk Chocolate"));
+        assertThat(index.idsContaining("milk")).containsExactly(4L);
+
+        index.onSweetChanged(event(SweetChangedEvent.Type.UPDATED, 4L, "Caramel Swirl"));
+        assertThat(index.idsContaining("milk")).isEmpty();
+        assertThat(index.idsContaining("swirl")).containsExactly(4L);
+
+        index.onSweetChanged(SweetChangedEvent.deleted(1L));
+        assertThat(index.idsContaining("choc")).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("too many candidates defers to SQL")
+    void candidateCap() {
+        props.setNameIndexMaxCandidates(1);
+        index.rebuild();
+        assertThat(index.idsContaining("chocolate")).isNull();
+    }
+
+    @Test
+    @DisplayName("an invalidated index defers to SQL, and a rebuild overtaken by another invalidation stays out")
+    void invalidation() {
+        index.rebuild();
+        index.invalidate();
+        assertThat(index.idsContaining("choc")).isNull();
+
+        when(repository.streamNames()).thenReturn(Stream.of(view(1L, "Chocolate Bar"))
+                .peek(v -> index.invalidate()));
+        index.rebuild();
+        assertThat(index.isReady()).isFalse();
+
+        when(repository.streamNames()).thenReturn(Stream.of(view(1L, "Chocolate Bar")));
+        index.rebuild();
+        assertThat(index.idsContaining("choc")).containsExactly(1L);
+    }
+}
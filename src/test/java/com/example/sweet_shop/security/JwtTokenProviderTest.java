@@ -29,6 +29,14 @@ class JwtTokenProviderTest {
         assertThat(provider.isValid(token)).isTrue();
         assertThat(provider.extractUsername(token)).isEqualTo("alice");
         assertThat(provider.extractRoles(token)).containsExactly("ROLE_USER");
+        assertThat(provider.extractSecurityVersion(token)).isNull();
+    }
+
+    @Test
+    @DisplayName("generateToken should carry the security version claim when given")
+    void securityVersionClaim() {
+        String token = provider.generateToken("carol", List.of("ROLE_USER"), 3);
+        assertThat(provider.extractSecurityVersion(token)).isEqualTo(3);
     }
 
     @Test
@@ -38,4 +46,19 @@ class JwtTokenProviderTest {
         String bad = token + "x";
         assertThat(provider.isValid(bad)).isFalse();
     }
+
+    @Test
+    @DisplayName("verify should return all claims from a single parse and reject tampered tokens")
+    void verifyReturnsClaims() {
+        String token = provider.generateToken("dave", List.of("ROLE_USER", "ROLE_ADMIN"), 2);
+        var claims = provider.verify(token).orElseThrow();
+        assertThat(claims.username()).isEqualTo("dave");
+        assertThat(claims.roles()).containsExactly("ROLE_USER", "ROLE_ADMIN");
+        assertThat(claims.securityVersion()).isEqualTo(2);
+        assertThat(claims.expiresAt()).isAfter(java.time.Instant.now());
+
+        assertThat(provider.verify(token)).contains(claims);
+        assertThat(provider.verify(token + "x")).isEmpty();
+        assertThat(provider.verify("")).isEmpty();
+    }
 }
@@ -0,0 +1,106 @@
+package com.example.sweet_shop.security;
+
+import com.example.sweet_shop.config.PasswordHashingProperties;
+import com.example.sweet_shop.error.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (hasher != null) hasher.shutdown();
+    }
+
+    private static PasswordHashingProperties props(int threads, int queueCapacity) {
+        PasswordHashingProperties props = new PasswordHashingProperties();
+        props.setThreads(threads);
+        props.setQueueCapacity(queueCapacity);
+        return props;
+    }
+
+    @Test
+    @DisplayName("encodes and matches on the hashing pool, not the caller")
+    void hashesOffCallerThread() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(4), props(1, 1));
+        String hash = hasher.encode("Password1");
+        assertThat(hasher.matches("Password1", hash)).isTrue();
+        assertThat(hasher.matches("nope", hash)).isFalse();
+    }
+
+    @Test
+    @DisplayName("a full queue is rejected with 503 immediately instead of waiting")
+    void rejectsWhenSaturated() throws Exception {
+        hasher = new PasswordHasher(blockingEncoder(), props(1, 1));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.encode("b"));
+        await(() -> hasherQueueDepth() == 1);
+
+        long t0 = System.nanoTime();
+        assertThatThrownBy(() -> hasher.encode("c")).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0)).isLessThan(1000);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:b");
+    }
+
+    @Test
+    @DisplayName("upgradeEncoding flags hashes made with a lower cost")
+    void upgradeEncoding() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(5), props(1, 1));
+        assertThat(hasher.upgradeEncoding(new BCryptPasswordEncoder(4).encode("x"))).isTrue();
+        assertThat(hasher.upgradeEncoding(new BCryptPasswordEncoder(5).encode("x"))).isFalse();
+    }
+
+    private int hasherQueueDepth() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hasher.bindTo(registry);
+        return (int) registry.get("auth.password.hash.queue").gauge().value();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence raw) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + raw;
+            }
+
+            @Override
+            public boolean matches(CharSequence raw, String encoded) {
+                return encoded.equals(encode(raw));
+            }
+        };
+    }
+}
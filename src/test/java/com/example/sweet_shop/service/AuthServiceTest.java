@@ -0,0 +1,86 @@
+package com.example.sweet_shop.service;
+
+import com.example.sweet_shop.config.JwtProperties;
+import com.example.sweet_shop.config.PasswordHashingProperties;
+import com.example.sweet_shop.domain.Role;
+import com.example.sweet_shop.domain.RoleName;
+import com.example.sweet_shop.domain.User;
+import com.example.sweet_shop.dto.auth.LoginRequest;
+import com.example.sweet_shop.error.NotFoundException;
+import com.example.sweet_shop.repository.RoleRepository;
+import com.example.sweet_shop.repository.UserRepository;
+import com.example.sweet_shop.security.JwtTokenProvider;
+import com.example.sweet_shop.security.PasswordHasher;
+import com.example.sweet_shop.security.UserSecurityVersionCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@Import({AuthService.class, UserService.class, UserSecurityVersionCache.class, JwtProperties.class, JwtTokenProvider.class,
+        PasswordHasher.class, PasswordHashingProperties.class, AuthServiceTest.TestConfig.class})
+@TestPropertySource(properties = "app.security.password.strength=5")
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private Long userId;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        PasswordEncoder passwordEncoder(PasswordHashingProperties props) {
+            return new BCryptPasswordEncoder(props.getStrength());
+        }
+    }
+
+    @BeforeEach
+    void seedUserHashedAtOldCost() {
+        Role roleUser = roleRepository.findByName(RoleName.ROLE_USER)
+                .orElseGet(() -> roleRepository.save(Role.builder().name(RoleName.ROLE_USER).build()));
+        User user = User.builder()
+                .username("dave")
+                .email("dave@example.com")
+                .passwordHash(new BCryptPasswordEncoder(4).encode("Password1"))
+                .build();
+        user.getRoles().add(roleUser);
+        userId = userRepository.saveAndFlush(user).getId();
+    }
+
+    @Test
+    @DisplayName("login re-hashes a password stored with a lower cost than configured")
+    void loginUpgradesHash() {
+        var resp = authService.login(new LoginRequest("dave", "Password1"));
+
+        assertThat(resp.token()).isNotBlank();
+        String stored = userRepository.findById(userId).orElseThrow().getPasswordHash();
+        assertThat(stored).startsWith("$2a$05$");
+        assertThat(new BCryptPasswordEncoder().matches("Password1", stored)).isTrue();
+    }
+
+    @Test
+    @DisplayName("a failed login leaves the stored hash alone")
+    void failedLoginKeepsHash() {
+        assertThatThrownBy(() -> authService.login(new LoginRequest("dave", "WrongPassword1")))
+                .isInstanceOf(NotFoundException.class);
+
+        assertThat(userRepository.findById(userId).orElseThrow().getPasswordHash()).startsWith("$2a$04$");
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.sweet_shop.service;
+
+import com.example.sweet_shop.bulk.UserImportReader;
+import com.example.sweet_shop.config.BulkOperationProperties;
+import com.example.sweet_shop.config.PasswordHashingProperties;
+import com.example.sweet_shop.domain.Role;
+import com.example.sweet_shop.domain.RoleName;
+import com.example.sweet_shop.domain.User;
+import com.example.sweet_shop.dto.UserImportRowResult;
+import com.example.sweet_shop.repository.RoleRepository;
+import com.example.sweet_shop.repository.UserRepository;
+import com.example.sweet_shop.security.PasswordHasher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest(properties = "app.sweets.bulk.chunk-size=2")
+@Import({UserBulkService.class, BulkOperationProperties.class, LocalValidatorFactoryBean.class, PasswordHasher.class,
+        PasswordHashingProperties.class, UserBulkServiceTest.TestConfig.class})
+class UserBulkServiceTest {
+
+    @Autowired
+    UserBulkService bulkService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    BulkOperationProperties props;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        PasswordEncoder passwordEncoder() { return new BCryptPasswordEncoder(4); }
+    }
+
+    @BeforeEach
+    void setupRoles() {
+        if (roleRepository.findByName(RoleName.ROLE_USER).isEmpty()) {
+            roleRepository.save(Role.builder().name(RoleName.ROLE_USER).build());
+        }
+    }
+
+    private List<List<UserImportRowResult>> provision(String body) {
+        List<List<UserImportRowResult>> chunks = new ArrayList<>();
+        bulkService.provision(new UserImportReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), mapper),
+                chunks::add);
+        return chunks;
+    }
+
+    @Test
+    @DisplayName("creates valid users as ROLE_USER and reports duplicates and invalid lines per line")
+    void provisionsAndReports() {
+        userRepository.save(User.builder().username("taken").email("taken@example.com").passwordHash("x").build());
+        String body = """
+                {"username":"erin","email":"erin@example.com","password":"Password1"}
+                {"username":"taken","email":"new@example.com","password":"Password1"}
+
+                {"username":"frank","email":"taken@example.com","password":"Password1"}
+                {"username":"erin","email":"erin2@example.com","password":"Password1"}
+                {"username":"gina","email":"not-an-email","password":"weak"}
+                not json
+                {"username":"hank","email":"hank@example.com","password":"Password1"}
+                """;
+
+        List<List<UserImportRowResult>> chunks = provision(body);
+
+        assertThat(chunks).hasSize(4);
+        List<UserImportRowResult> rows = chunks.stream().flatMap(List::stream).toList();
+        assertThat(rows).extracting(UserImportRowResult::line, UserImportRowResult::status).containsExactly(
+                tuple(1, UserImportRowResult.Status.CREATED),
+                tuple(2, UserImportRowResult.Status.DUPLICATE),
+                tuple(4, UserImportRowResult.Status.DUPLICATE),
+                tuple(5, UserImportRowResult.Status.DUPLICATE),
+                tuple(6, UserImportRowResult.Status.INVALID),
+                tuple(7, UserImportRowResult.Status.INVALID),
+                tuple(8, UserImportRowResult.Status.CREATED));
+        assertThat(rows.get(2).message()).isEqualTo("email already exists");
+        assertThat(rows.get(4).message()).contains("email").contains("password");
+
+        User hank = userRepository.findByUsername("hank").orElseThrow();
+        assertThat(hank.getId()).isEqualTo(rows.get(6).id());
+        assertThat(hank.getRoles()).extracting(Role::getName).containsExactly(RoleName.ROLE_USER);
+        assertThat(new BCryptPasswordEncoder().matches("Password1", hank.getPasswordHash())).isTrue();
+        assertThat(hank.getCreatedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("duplicates inside one chunk are rejected before hitting the database")
+    void duplicateWithinChunk() {
+        String body = """
+                {"username":"ivy","email":"ivy@example.com","password":"Password1"}
+                {"username":"ivy2","email":"ivy@example.com","password":"Password1"}
+                """;
+
+        List<UserImportRowResult> rows = provision(body).get(0);
+
+        assertThat(rows).extracting(UserImportRowResult::status)
+                .containsExactly(UserImportRowResult.Status.CREATED, UserImportRowResult.Status.DUPLICATE);
+        assertThat(rows.get(1).message()).isEqualTo("duplicate email in import");
+        assertThat(userRepository.existsByUsername("ivy2")).isFalse();
+    }
+
+    @Test
+    @DisplayName("an import above the row cap stops there and ends with a truncation marker")
+    void rowCap() {
+        props.setMaxRows(3);
+        try {
+            String body = """
+                    {"username":"jack","email":"jack@example.com","password":"Password1"}
+                    {"username":"kate","email":"kate@example.com","password":"Password1"}
+                    {"username":"liam","email":"liam@example.com","password":"Password1"}
+                    {"username":"mona","email":"mona@example.com","password":"Password1"}
+                    """;
+
+            List<List<UserImportRowResult>> chunks = provision(body);
+
+            List<UserImportRowResult> rows = chunks.stream().flatMap(List::stream).toList();
+            assertThat(rows).extracting(UserImportRowResult::line, UserImportRowResult::status).containsExactly(
+                    tuple(1, UserImportRowResult.Status.CREATED),
+                    tuple(2, UserImportRowResult.Status.CREATED),
+                    tuple(3, UserImportRowResult.Status.CREATED),
+                    tuple(4, UserImportRowResult.Status.TRUNCATED));
+            assertThat(rows.get(3).message()).contains("3 rows");
+            assertThat(userRepository.existsByUsername("liam")).isTrue();
+            assertThat(userRepository.existsByUsername("mona")).isFalse();
+        } finally {
+            props.setMaxRows(100_000);
+        }
+    }
+}
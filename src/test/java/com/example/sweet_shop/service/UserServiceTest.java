@@ -1,10 +1,14 @@
 package com.example.sweet_shop.service;
 
+import com.example.sweet_shop.config.JwtProperties;
+import com.example.sweet_shop.config.PasswordHashingProperties;
 import com.example.sweet_shop.domain.Role;
 import com.example.sweet_shop.domain.RoleName;
 import com.example.sweet_shop.dto.UserRegistrationRequest;
 import com.example.sweet_shop.repository.RoleRepository;
 import com.example.sweet_shop.repository.UserRepository;
+import com.example.sweet_shop.security.PasswordHasher;
+import com.example.sweet_shop.security.UserSecurityVersionCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,7 +22,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import static org.assertj.core.api.Assertions.*;
 
 @DataJpaTest
-@Import({UserService.class, UserServiceTest.TestConfig.class})
+@Import({UserService.class, UserSecurityVersionCache.class, JwtProperties.class, PasswordHasher.class,
+        PasswordHashingProperties.class, UserServiceTest.TestConfig.class})
 class UserServiceTest {
 
     @Autowired
@@ -30,6 +35,9 @@ class UserServiceTest {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private UserSecurityVersionCache securityVersionCache;
+
     @BeforeEach
     void setupRoles() {
         if (roleRepository.findByName(RoleName.ROLE_USER).isEmpty()) {
@@ -66,4 +74,17 @@ class UserServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("username");
     }
+
+    @Test
+    @DisplayName("revokeTokens should bump the security version so older tokens stop matching")
+    void revokeTokens_bumpsVersion() {
+        userService.register(new UserRegistrationRequest("carol","carol@example.com","Password1"));
+        assertThat(securityVersionCache.isCurrent("carol", 0)).isTrue();
+
+        userService.revokeTokens("carol");
+
+        assertThat(securityVersionCache.isCurrent("carol", 0)).isFalse();
+        assertThat(securityVersionCache.isCurrent("carol", 1)).isTrue();
+        assertThat(securityVersionCache.isCurrent("nobody", 0)).isFalse();
+    }
 }
@@ -0,0 +1,162 @@
+package com.example.sweet_shop.service.sweet;
+
+import com.example.sweet_shop.config.PurchaseCombiningProperties;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import com.example.sweet_shop.error.InsufficientStockException;
+import com.example.sweet_shop.error.ServiceUnavailableException;
+import com.example.sweet_shop.service.PurchaseAllocation;
+import com.example.sweet_shop.service.PurchaseCombiner;
+import com.example.sweet_shop.service.SweetService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PurchaseCombinerTest {
+
+    private SweetService sweetService;
+    private PurchaseCombiningProperties props;
+    private PurchaseCombiner combiner;
+    private SimpleMeterRegistry registry;
+    private final AtomicInteger stock = new AtomicInteger();
+    private final AtomicInteger batches = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        sweetService = mock(SweetService.class);
+        props = new PurchaseCombiningProperties();
+        props.setEnabled(true);
+        props.setWindow(Duration.ofMillis(50));
+        props.setMaxBatchSize(8);
+        registry = new SimpleMeterRegistry();
+        combiner = new PurchaseCombiner(sweetService, props, registry);
+        when(sweetService.purchaseBatch(eq(1L), anyList())).thenAnswer(inv -> {
+            batches.incrementAndGet();
+            List<Integer> quantities = inv.getArgument(1);
+            List<Boolean> granted = new ArrayList<>();
+            for (int q : quantities) {
+                boolean ok = q <= stock.get();
+                if (ok) stock.addAndGet(-q);
+                granted.add(ok);
+            }
+            return new PurchaseAllocation(response(stock.get()), granted);
+        });
+    }
+
+    private static SweetResponse response(int quantity) {
+        return new SweetResponse(1L, "Hot", "Flash", BigDecimal.ONE, quantity, null, null);
+    }
+
+    @Test
+    @DisplayName("disabled combiner delegates straight to purchase")
+    void disabled_delegates() {
+        props.setEnabled(false);
+        when(sweetService.purchase(1L, 2)).thenReturn(response(3));
+        assertThat(combiner.purchase(1L, 2).quantity()).isEqualTo(3);
+        verify(sweetService, never()).purchaseBatch(anyLong(), anyList());
+    }
+
+    @Test
+    @DisplayName("concurrent buyers share batches and never oversell")
+    void concurrentBuyers_combined() throws Exception {
+        stock.set(10);
+        int buyers = 16;
+        var start = new CountDownLatch(1);
+        var sold = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(buyers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < buyers; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        combiner.purchase(1L, 1);
+                        sold.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(sold.get()).isEqualTo(10);
+        assertThat(rejected.get()).isEqualTo(6);
+        assertThat(stock.get()).isZero();
+        assertThat(batches.get()).isLessThan(buyers);
+        // One timing per caller, not per batch
+        assertThat(registry.get("sweets.service").tag("method", "purchase").timers().stream()
+                .mapToLong(Timer::count).sum()).isEqualTo(buyers);
+    }
+
+    @Test
+    @DisplayName("a failing batch fails every caller in it")
+    void batchFailure_propagates() {
+        when(sweetService.purchaseBatch(eq(2L), anyList())).thenThrow(new IllegalStateException("db down"));
+        assertThatThrownBy(() -> combiner.purchase(2L, 1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("db down");
+    }
+
+    @Test
+    @DisplayName("an Error thrown by the batch still settles every follower")
+    void batchError_settlesFollowers() throws Exception {
+        when(sweetService.purchaseBatch(eq(3L), anyList())).thenThrow(new StackOverflowError("deep"));
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(pool.submit(() -> combiner.purchase(3L, 1)));
+            }
+            for (Future<?> f : futures) {
+                assertThatThrownBy(() -> f.get(5, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasCauseInstanceOf(StackOverflowError.class);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("a follower whose batch does not start in time gives up and is not charged")
+    void followerTimeout_notCharged() throws Exception {
+        stock.set(10);
+        props.setWindow(Duration.ofSeconds(1));
+        props.setFollowerTimeout(Duration.ofMillis(100));
+        var quantities = new CopyOnWriteArrayList<List<Integer>>();
+        when(sweetService.purchaseBatch(eq(4L), anyList())).thenAnswer(inv -> {
+            List<Integer> q = inv.getArgument(1);
+            quantities.add(q);
+            return new PurchaseAllocation(response(10 - q.stream().mapToInt(Integer::intValue).sum()),
+                    q.stream().map(x -> true).toList());
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(1);
+        try {
+            Future<SweetResponse> leader = pool.submit(() -> combiner.purchase(4L, 2));
+            // Give the leader time to open the batch
+            Thread.sleep(100);
+            assertThatThrownBy(() -> combiner.purchase(4L, 3)).isInstanceOf(ServiceUnavailableException.class);
+            assertThat(leader.get(5, TimeUnit.SECONDS).quantity()).isEqualTo(8);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(quantities).containsExactly(List.of(2));
+    }
+}
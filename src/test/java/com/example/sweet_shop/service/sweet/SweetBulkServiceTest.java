@@ -0,0 +1,165 @@
+package com.example.sweet_shop.service.sweet;
+
+import com.example.sweet_shop.bulk.SweetImportReader;
+import com.example.sweet_shop.config.BulkOperationProperties;
+import com.example.sweet_shop.domain.Sweet;
+import com.example.sweet_shop.dto.sweet.SweetExportFormat;
+import com.example.sweet_shop.dto.sweet.SweetImportResult;
+import com.example.sweet_shop.dto.sweet.SweetImportRowResult;
+import com.example.sweet_shop.dto.sweet.StockUpdateLine;
+import com.example.sweet_shop.dto.sweet.StockUpdateResult;
+import com.example.sweet_shop.dto.sweet.StockUpdateRowResult;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetBulkService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest(properties = "app.sweets.bulk.chunk-size=2")
+@Import({SweetBulkService.class, BulkOperationProperties.class, LocalValidatorFactoryBean.class})
+class SweetBulkServiceTest {
+
+    @Autowired
+    SweetBulkService bulkService;
+
+    @Autowired
+    SweetRepository sweetRepository;
+
+    @Autowired
+    BulkOperationProperties props;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeEach
+    void clear() { sweetRepository.deleteAll(); }
+
+    private SweetImportResult importBody(SweetExportFormat format, String body) {
+        return bulkService.importSweets(new SweetImportReader(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, mapper));
+    }
+
+    @Test
+    @DisplayName("NDJSON import creates valid rows and reports duplicates and invalid rows per line")
+    void ndjsonImport() {
+        sweetRepository.save(Sweet.builder().name("Barfi").category("Indian").price(new BigDecimal("1.00")).quantity(1).build());
+        String body = """
+                {"name":"Ladoo","category":"Indian","price":2.50,"quantity":10}
+                {"name":"Barfi","category":"Indian","price":3.00,"quantity":5}
+
+                {"name":"Ladoo","category":"Other","price":1.00,"quantity":1}
+                {"name":"","category":"Indian","price":-1,"quantity":1}
+                not json
+                {"name":"Jalebi","category":"Indian","price":1.75,"quantity":0}
+                """;
+
+        SweetImportResult result = importBody(SweetExportFormat.NDJSON, body);
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.duplicates()).isEqualTo(2);
+        assertThat(result.invalid()).isEqualTo(2);
+        assertThat(result.rows()).extracting(SweetImportRowResult::line, SweetImportRowResult::status).containsExactly(
+                tuple(1, SweetImportRowResult.Status.CREATED),
+                tuple(2, SweetImportRowResult.Status.DUPLICATE),
+                tuple(4, SweetImportRowResult.Status.DUPLICATE),
+                tuple(5, SweetImportRowResult.Status.INVALID),
+                tuple(6, SweetImportRowResult.Status.INVALID),
+                tuple(7, SweetImportRowResult.Status.CREATED));
+        assertThat(result.rows().get(3).message()).contains("name").contains("price");
+        assertThat(sweetRepository.findByName("Jalebi")).get().extracting(Sweet::getId).isEqualTo(result.rows().get(5).id());
+    }
+
+    @Test
+    @DisplayName("CSV import maps header columns in any order")
+    void csvImport() {
+        String body = """
+                quantity,price,category,name
+                4,1.25,Fudge,"Fudge, Vanilla"
+                2,abc,Fudge,Broken
+                """;
+
+        SweetImportResult result = importBody(SweetExportFormat.CSV, body);
+
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.invalid()).isEqualTo(1);
+        assertThat(sweetRepository.findByName("Fudge, Vanilla")).get()
+                .extracting(Sweet::getQuantity).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("imports above the row cap stop at the cap and are reported truncated")
+    void rowCap() {
+        props.setMaxRows(3);
+        try {
+            SweetImportResult result = importBody(SweetExportFormat.NDJSON, """
+                    {"name":"A","category":"X","price":1,"quantity":1}
+                    {"name":"B","category":"X","price":1,"quantity":1}
+                    {"name":"C","category":"X","price":1,"quantity":1}
+                    {"name":"D","category":"X","price":1,"quantity":1}
+                    """);
+
+            assertThat(result.truncated()).isTrue();
+            assertThat(result.created()).isEqualTo(3);
+            assertThat(sweetRepository.findByName("C")).isPresent();
+            assertThat(sweetRepository.findByName("D")).isEmpty();
+        } finally {
+            props.setMaxRows(100_000);
+        }
+    }
+
+    @Test
+    @DisplayName("bulk stock update applies guarded deltas and optional prices with per-row outcomes")
+    void updateStock() {
+        Long a = sweetRepository.saveAndFlush(Sweet.builder().name("Ladoo").category("Indian").price(new BigDecimal("1.00")).quantity(5).build()).getId();
+        Long b = sweetRepository.saveAndFlush(Sweet.builder().name("Barfi").category("Indian").price(new BigDecimal("2.00")).quantity(1).build()).getId();
+
+        StockUpdateResult result = bulkService.updateStock(List.of(
+                new StockUpdateLine(a, 10, null),
+                new StockUpdateLine(b, -2, null),
+                new StockUpdateLine(999_999L, 1, null),
+                new StockUpdateLine(b, 4, new BigDecimal("2.75"))));
+
+        assertThat(result.applied()).isEqualTo(2);
+        assertThat(result.rows()).extracting(StockUpdateRowResult::index, StockUpdateRowResult::status).containsExactly(
+                tuple(0, StockUpdateRowResult.Status.APPLIED),
+                tuple(1, StockUpdateRowResult.Status.INSUFFICIENT_STOCK),
+                tuple(2, StockUpdateRowResult.Status.NOT_FOUND),
+                tuple(3, StockUpdateRowResult.Status.APPLIED));
+        assertThat(result.rows().get(0).sweet().quantity()).isEqualTo(15);
+        assertThat(result.rows().get(3).sweet().quantity()).isEqualTo(5);
+        assertThat(result.rows().get(3).sweet().price()).isEqualByComparingTo("2.75");
+    }
+
+    @Test
+    @DisplayName("a row the database rejects is reported failed without losing the rest of its chunk")
+    // Chunks must really commit and roll back, which they cannot inside the test's own transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void updateStockRowFailure() {
+        Long full = sweetRepository.saveAndFlush(Sweet.builder().name("Kaju").category("Indian").price(new BigDecimal("1.00")).quantity(Integer.MAX_VALUE - 5).build()).getId();
+        Long other = sweetRepository.saveAndFlush(Sweet.builder().name("Peda").category("Indian").price(new BigDecimal("1.00")).quantity(1).build()).getId();
+
+        StockUpdateResult result = bulkService.updateStock(List.of(
+                new StockUpdateLine(other, 2, null),
+                new StockUpdateLine(full, 10, null)));
+
+        assertThat(result.rows()).extracting(StockUpdateRowResult::index, StockUpdateRowResult::status).containsExactly(
+                tuple(0, StockUpdateRowResult.Status.APPLIED),
+                tuple(1, StockUpdateRowResult.Status.FAILED));
+        assertThat(result.rows().get(1).message()).isNotBlank();
+        assertThat(sweetRepository.findById(other).orElseThrow().getQuantity()).isEqualTo(3);
+        assertThat(sweetRepository.findById(full).orElseThrow().getQuantity()).isEqualTo(Integer.MAX_VALUE - 5);
+    }
+}
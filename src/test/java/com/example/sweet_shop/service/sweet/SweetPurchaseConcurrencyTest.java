@@ -0,0 +1,142 @@
+package com.example.sweet_shop.service.sweet;
+
+import com.example.sweet_shop.dto.sweet.CheckoutLine;
+import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import com.example.sweet_shop.dto.sweet.SweetSort;
+import com.example.sweet_shop.error.InsufficientStockException;
+import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.service.SweetService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SweetPurchaseConcurrencyTest {
+
+    @Autowired
+    SweetService sweetService;
+
+    @Autowired
+    SweetRepository sweetRepository;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        sweetRepository.deleteAllById(created);
+        created.clear();
+    }
+
+    private Long create(String name, int quantity) {
+        Long id = sweetService.create(new CreateSweetRequest(name,"Flash", new BigDecimal("1.00"), quantity)).id();
+        created.add(id);
+        return id;
+    }
+
+    @Test
+    @DisplayName("concurrent purchases of one sweet never oversell or lose updates")
+    void concurrentPurchases_noLostUpdates() throws Exception {
+        Long sweetId = create("Hot Sku", 100);
+        int threads = 16;
+        int attemptsPerThread = 10;
+        var sold = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        try {
+                            sweetService.purchase(sweetId, 1);
+                            sold.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(sold.get()).isEqualTo(100);
+        assertThat(rejected.get()).isEqualTo(threads * attemptsPerThread - 100);
+        assertThat(sweetService.getById(sweetId).quantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("carts listing the same sweets in opposite order do not deadlock")
+    void concurrentCarts_noDeadlock() throws Exception {
+        Long a = create("Cart A", 1_000);
+        Long b = create("Cart B", 1_000);
+        int threads = 8;
+        var start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                var lines = (t % 2 == 0)
+                        ? List.of(new CheckoutLine(a, 1), new CheckoutLine(b, 1))
+                        : List.of(new CheckoutLine(b, 1), new CheckoutLine(a, 1));
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 25; i++) sweetService.checkout(lines);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(sweetService.getById(a).quantity()).isEqualTo(1_000 - threads * 25);
+        assertThat(sweetService.getById(b).quantity()).isEqualTo(1_000 - threads * 25);
+    }
+
+    @Test
+    @DisplayName("a short line rolls back the whole cart")
+    void checkout_rollsBackWholeCart() {
+        Long a = create("Roll A", 5);
+        Long b = create("Roll B", 1);
+        assertThatThrownBy(() -> sweetService.checkout(List.of(new CheckoutLine(a, 2), new CheckoutLine(b, 3))))
+                .isInstanceOf(InsufficientStockException.class);
+        assertThat(sweetService.getById(a).quantity()).isEqualTo(5);
+        assertThat(sweetService.getById(b).quantity()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("cached search pages are invalidated once a purchase commits")
+    void cachedSearch_seesCommittedPurchase() {
+        Long id = create("Cached Sku", 5);
+        SweetSearchCriteria criteria = new SweetSearchCriteria("cached sku", null, null, null);
+        assertThat(sweetService.searchPage(criteria, SweetSort.ID, null, 10).items())
+                .extracting(SweetResponse::quantity).containsExactly(5);
+        assertThat(sweetService.searchPage(criteria, SweetSort.ID, null, 10).items())
+                .extracting(SweetResponse::quantity).containsExactly(5);
+
+        sweetService.purchase(id, 2);
+
+        assertThat(sweetService.searchPage(criteria, SweetSort.ID, null, 10).items())
+                .extracting(SweetResponse::quantity).containsExactly(3);
+    }
+}
@@ -1,22 +1,38 @@
 package com.example.sweet_shop.service.sweet;
 
+import com.example.sweet_shop.config.CatalogSearchProperties;
+import com.example.sweet_shop.dto.sweet.CheckoutLine;
 import com.example.sweet_shop.dto.sweet.CreateSweetRequest;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
 import com.example.sweet_shop.dto.sweet.SweetSearchCriteria;
+import com.example.sweet_shop.dto.sweet.SweetSort;
 import com.example.sweet_shop.repository.SweetRepository;
+import com.example.sweet_shop.search.CatalogFilterEngine;
+import com.example.sweet_shop.search.CatalogVersion;
+import com.example.sweet_shop.search.SearchResultCache;
+import com.example.sweet_shop.search.SweetNameIndex;
 import com.example.sweet_shop.service.SweetService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 
-@DataJpaTest
-@Import(SweetService.class)
+// Test transactions never commit, so the after-commit name index would stay empty; exercise the SQL path here.
+// Own H2 database with MySQL's case-insensitive comparisons, which category filters rely on
+@DataJpaTest(properties = {"app.sweets.search.name-index-enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:sweetshop-service;DB_CLOSE_DELAY=-1;MODE=MySQL;IGNORECASE=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver", "spring.datasource.username=sa", "spring.datasource.password="})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SweetService.class, SweetNameIndex.class, CatalogFilterEngine.class, SearchResultCache.class, CatalogVersion.class, CatalogSearchProperties.class})
 class SweetServiceTest {
 
     @Autowired
@@ -61,6 +77,54 @@ class SweetServiceTest {
         assertThatThrownBy(() -> sweetService.purchase(s.id(),2))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("stock");
+        assertThat(sweetService.getById(s.id()).quantity()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("purchase should report missing sweet as not found")
+    void purchase_notFound() {
+        assertThatThrownBy(() -> sweetService.purchase(Long.MAX_VALUE, 1))
+                .isInstanceOf(com.example.sweet_shop.error.NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("purchaseBatch should grant requests in order while stock lasts")
+    void purchaseBatch_allocates() {
+        var s = sweetService.create(new CreateSweetRequest("Kaju","Indian", new BigDecimal("9.00"), 5));
+        var allocation = sweetService.purchaseBatch(s.id(), List.of(2, 4, 3));
+        assertThat(allocation.granted()).containsExactly(true, false, true);
+        assertThat(allocation.sweet().quantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("checkout should merge lines per sweet and decrement each once")
+    void checkout_success() {
+        var a = sweetService.create(new CreateSweetRequest("Halwa","Indian", new BigDecimal("4.00"), 10));
+        var b = sweetService.create(new CreateSweetRequest("Jalebi","Indian", new BigDecimal("3.00"), 5));
+        var result = sweetService.checkout(List.of(
+                new CheckoutLine(b.id(), 2), new CheckoutLine(a.id(), 3), new CheckoutLine(b.id(), 1)));
+        assertThat(result).extracting(SweetResponse::name).containsExactly("Halwa", "Jalebi");
+        assertThat(result).extracting(SweetResponse::quantity).containsExactly(7, 2);
+    }
+
+    @Test
+    @DisplayName("checkout should fail when any line is short")
+    void checkout_insufficient() {
+        var a = sweetService.create(new CreateSweetRequest("Peda","Indian", new BigDecimal("4.00"), 10));
+        var b = sweetService.create(new CreateSweetRequest("Rasgulla","Indian", new BigDecimal("3.00"), 1));
+        assertThatThrownBy(() -> sweetService.checkout(List.of(new CheckoutLine(a.id(), 1), new CheckoutLine(b.id(), 2))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("stock");
+    }
+
+    @Test
+    @DisplayName("checkout should reject lines whose merged quantity overflows")
+    void checkout_overflow() {
+        var a = sweetService.create(new CreateSweetRequest("Barfi","Indian", new BigDecimal("4.00"), 10));
+        assertThatThrownBy(() -> sweetService.checkout(List.of(
+                new CheckoutLine(a.id(), Integer.MAX_VALUE), new CheckoutLine(a.id(), 1))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("too large");
     }
 
     @Test
@@ -83,4 +147,65 @@ class SweetServiceTest {
         assertThat(list).hasSize(1);
         assertThat(list.getFirst().name()).isEqualTo("Dark Chocolate");
     }
+
+    @Test
+    @DisplayName("search should match categories regardless of case, as the filter engine does")
+    void search_categoryIgnoresCase() {
+        sweetService.create(new CreateSweetRequest("Toffee Bar","Toffee", new BigDecimal("2.00"), 5));
+
+        var list = sweetService.search(new SweetSearchCriteria(null, "TOFFEE", null, null));
+        assertThat(list).extracting(r -> r.category()).containsExactly("Toffee");
+    }
+
+    @Test
+    @DisplayName("searchPage should walk all rows with keyset cursors in sort order")
+    void searchPage_walksCursor() {
+        sweetService.create(new CreateSweetRequest("Toffee","Candy", new BigDecimal("2.00"), 1));
+        sweetService.create(new CreateSweetRequest("Caramel","Candy", new BigDecimal("1.00"), 1));
+        sweetService.create(new CreateSweetRequest("Nougat","Candy", new BigDecimal("2.00"), 1));
+        sweetService.create(new CreateSweetRequest("Praline","Nuts", new BigDecimal("0.50"), 1));
+        var criteria = new SweetSearchCriteria(null,"Candy", null, null);
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var page = sweetService.searchPage(criteria, SweetSort.PRICE, cursor, 2);
+            page.items().stream().map(SweetResponse::name).forEach(names::add);
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(2);
+        assertThat(names).containsExactly("Caramel", "Toffee", "Nougat");
+    }
+
+    @Test
+    @DisplayName("searchPage should reject a cursor issued for another sort")
+    void searchPage_invalidCursor() {
+        sweetService.create(new CreateSweetRequest("Jelly","Candy", new BigDecimal("1.00"), 1));
+        sweetService.create(new CreateSweetRequest("Gum","Candy", new BigDecimal("1.00"), 1));
+        var criteria = new SweetSearchCriteria(null, null, null, null);
+        var cursor = sweetService.searchPage(criteria, SweetSort.NAME, null, 1).nextCursor();
+        assertThat(cursor).isNotNull();
+        assertThatThrownBy(() -> sweetService.searchPage(criteria, SweetSort.ID, cursor, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cursor");
+    }
+
+    @Test
+    @DisplayName("getByIds resolves found ids in request order and lists missing ones")
+    void getByIds() {
+        var a = sweetService.create(new CreateSweetRequest("Peda","Indian", new BigDecimal("5.00"), 3));
+        var b = sweetService.create(new CreateSweetRequest("Halwa","Indian", new BigDecimal("6.00"), 4));
+
+        var batch = sweetService.getByIds(List.of(b.id(), 424242L, a.id(), b.id()));
+
+        assertThat(batch.items()).extracting(SweetResponse::name).containsExactly("Halwa", "Peda");
+        assertThat(batch.missing()).containsExactly(424242L);
+        List<Long> tooMany = new ArrayList<>();
+        for (long i = 1; i <= SweetService.MAX_BATCH_IDS + 1; i++) tooMany.add(i);
+        assertThatThrownBy(() -> sweetService.getByIds(tooMany))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("at most");
+    }
 }
@@ -0,0 +1,187 @@
+package com.example.sweet_shop.stream;
+
+import com.example.sweet_shop.config.CatalogSearchProperties;
+import com.example.sweet_shop.config.SweetStreamProperties;
+import com.example.sweet_shop.dto.sweet.SweetChangeMessage;
+import com.example.sweet_shop.dto.sweet.SweetResponse;
+import com.example.sweet_shop.search.CatalogVersion;
+import com.example.sweet_shop.service.SweetChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SweetChangeBroadcasterTest {
+
+    private SweetStreamProperties props;
+    private CatalogVersion version;
+    private JdbcTemplate jdbcTemplate;
+    private SweetChangeBroadcaster broadcaster;
+
+    /** Emitter that records "name:data" for every event instead of writing to a response. */
+    static class CapturingEmitter extends SseEmitter {
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        volatile CountDownLatch gate = new CountDownLatch(0);
+        volatile List<Long> versions;
+        // Simulates the client going away: the next send fails as a broken connection would
+        volatile boolean disconnected;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (disconnected) throw new IOException("client disconnected");
+            String name = "";
+            String data = "";
+            for (var part : builder.build()) {
+                Object value = part.getData();
+                if (value instanceof SweetChangeMessage m) {
+                    data = m.type() + "#" + m.id();
+                    if (versions != null) versions.add(m.version());
+                } else if (value.toString().startsWith("event:")) {
+                    name = value.toString().substring(6, value.toString().indexOf('\n')).trim();
+                }
+            }
+            events.add(name.isEmpty() ? "comment" : name + ":" + data);
+        }
+
+        String next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        props = new SweetStreamProperties();
+        props.setBufferSize(2);
+        props.setHeartbeat(Duration.ofMillis(100));
+        props.setMaxSubscribers(1);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+        version = new CatalogVersion(jdbcTemplate, event -> { }, new CatalogSearchProperties());
+        broadcaster = new SweetChangeBroadcaster(props, version);
+    }
+
+    private static SweetChangedEvent stock(long id, int quantity) {
+        return SweetChangedEvent.of(SweetChangedEvent.Type.STOCK_CHANGED,
+                new SweetResponse(id, "S" + id, "Cat", new BigDecimal("1.00"), quantity, null, null));
+    }
+
+    @Test
+    @DisplayName("subscribers get a ready event, then compact changes, then heartbeats when idle")
+    void deliversChanges() throws Exception {
+        CapturingEmitter emitter = new CapturingEmitter();
+        broadcaster.subscribe(null, "10.0.0.1", emitter);
+        assertThat(emitter.next()).startsWith("ready");
+
+        broadcaster.onSweetChanged(stock(7, 3));
+        broadcaster.onSweetChanged(SweetChangedEvent.deleted(8L));
+
+        assertThat(emitter.next()).isEqualTo("change:STOCK_CHANGED#7");
+        assertThat(emitter.next()).isEqualTo("change:DELETED#8");
+        assertThat(emitter.next()).isEqualTo("comment");
+        emitter.complete();
+    }
+
+    @Test
+    @DisplayName("a slow subscriber's backlog is dropped and replaced by one resync")
+    void overflowResyncs() throws Exception {
+        CapturingEmitter emitter = new CapturingEmitter();
+        emitter.gate = new CountDownLatch(1);
+        broadcaster.subscribe(null, "10.0.0.1", emitter);
+
+        for (int i = 0; i < 10; i++) broadcaster.onSweetChanged(stock(i, i));
+        emitter.gate.countDown();
+
+        List<String> seen = List.of(emitter.next(), emitter.next());
+        assertThat(seen.get(0)).startsWith("ready");
+        assertThat(seen.get(1)).startsWith("resync");
+        emitter.complete();
+    }
+
+    @Test
+    @DisplayName("subscribers beyond the cap are turned away")
+    void subscriberCap() {
+        props.setMaxSubscribersPerAddress(2);
+        broadcaster.subscribe(null, "10.0.0.1", new CapturingEmitter());
+        assertThatThrownBy(() -> broadcaster.subscribe(null, "10.0.0.2", new CapturingEmitter()))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode().value()).isEqualTo(503);
+    }
+
+    @Test
+    @DisplayName("users and anonymous addresses each hold at most their own share of streams; closing one frees a place")
+    void perClientCap() throws Exception {
+        props.setMaxSubscribers(10);
+        props.setMaxSubscribersPerClient(1);
+        props.setMaxSubscribersPerAddress(2);
+        CapturingEmitter first = new CapturingEmitter();
+        broadcaster.subscribe("alice", "10.0.0.1", first);
+        assertThat(first.next()).startsWith("ready");
+
+        assertThatThrownBy(() -> broadcaster.subscribe("alice", "10.0.0.9", new CapturingEmitter()))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode().value()).isEqualTo(429);
+        // Anonymous visitors behind alice's address are counted apart from her, under the address cap
+        broadcaster.subscribe(null, "10.0.0.1", new CapturingEmitter());
+        broadcaster.subscribe(null, "10.0.0.1", new CapturingEmitter());
+        assertThatThrownBy(() -> broadcaster.subscribe(null, "10.0.0.1", new CapturingEmitter()))
+                .isInstanceOf(ResponseStatusException.class);
+
+        first.disconnected = true;
+        await(() -> broadcaster.subscriberCount() == 2);
+        broadcaster.subscribe("alice", "10.0.0.1", new CapturingEmitter());
+    }
+
+    @Test
+    @DisplayName("a change carries the version its own transaction produced")
+    void changeCarriesProducedVersion() throws Exception {
+        CapturingEmitter emitter = new CapturingEmitter();
+        broadcaster.subscribe(null, "10.0.0.1", emitter);
+        assertThat(emitter.next()).startsWith("ready");
+        List<Long> versions = new java.util.concurrent.CopyOnWriteArrayList<>();
+        emitter.versions = versions;
+        // The bump reads back 41, while the version the node holds as current is still 0
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(41L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            version.bump(stock(7, 3));
+            broadcaster.onSweetChanged(stock(7, 3));
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(0));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(emitter.next()).isEqualTo("change:STOCK_CHANGED#7");
+        assertThat(versions).containsExactly(41L);
+        emitter.complete();
+    }
+
+    private static void await(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) Thread.sleep(10);
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}